@@ -0,0 +1,73 @@
+package com.nttdata.bench;
+
+import com.nttdata.service.errors.ConflictException;
+import com.nttdata.service.errors.NotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Respuestas 404/409 por segundo: excepción con stack trace creada en cada petición (como antes)
+ * contra las instancias preasignadas sin stack de service.errors. depth simula la profundidad de
+ * pila de un hilo de Netty al momento de fallar, que es lo que paga fillInStackTrace.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorSignallingBenchmark {
+
+    @Param({"32", "128"})
+    public int depth;
+
+    @Benchmark
+    public int notFoundWithStackTrace() {
+        return atDepth(depth, () -> new LegacyException("Cliente no encontrado"));
+    }
+
+    @Benchmark
+    public int notFoundPreallocated() {
+        return atDepth(depth, () -> NotFoundException.CUSTOMER);
+    }
+
+    @Benchmark
+    public int conflictWithStackTrace() {
+        return atDepth(depth, () -> new LegacyException("Ya existe un cliente activo con ese documento"));
+    }
+
+    @Benchmark
+    public int conflictPreallocated() {
+        return atDepth(depth, () -> ConflictException.ACTIVE_DOCUMENT);
+    }
+
+    private static int atDepth(int remaining, Supplier<RuntimeException> error) {
+        if (remaining > 0) {
+            return atDepth(remaining - 1, error);
+        }
+        // Lo mismo que getById ante un vacío; el handler solo lee el mensaje para armar el cuerpo
+        return Mono.<Integer>empty()
+                .switchIfEmpty(Mono.error(error.get()))
+                .onErrorResume(ex -> Mono.just(ex.getMessage().length()))
+                .block();
+    }
+
+    // Excepción de negocio como era antes: RuntimeException con stack trace completo
+    static final class LegacyException extends RuntimeException {
+        LegacyException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.nttdata.bench;
+
+import com.nttdata.model.Address;
+import com.nttdata.model.CustomerCreateRequest;
+import com.nttdata.service.RequestSanitizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sanitizado de un alta completa: legacy (streams) contra el escáner de una pasada.
+ * raw = valores como llegan de un onboarding masivo; clean = ya normalizados, donde el escáner
+ * no debería asignar nada. Comparar gc.alloc.rate.norm de ambos con -prof gc.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestSanitizerBenchmark {
+
+    @Param({"raw", "clean"})
+    public String input;
+
+    private final RequestSanitizer current = new RequestSanitizer();
+    private final LegacyRequestSanitizer legacy = new LegacyRequestSanitizer();
+
+    private final CustomerCreateRequest request = new CustomerCreateRequest().address(new Address());
+    private String[] values;
+
+    @Setup
+    public void setUp() {
+        values = "raw".equals(input)
+                ? new String[] {"  aNA  maría ", " PÉREZ   gómez ", "  Acme   S.A.C. ", " 12345678 ",
+                    " 999888777 ", "  Ana.Perez@Example.COM ", " jr. los   sauces 123 ", "  LIMA ",
+                    " san   isidro", "  perú "}
+                : new String[] {"Ana María", "Pérez Gómez", "Acme S.A.C.", "12345678", "999888777",
+                    "ana.perez@example.com", "jr. los sauces 123", "Lima", "San Isidro", "Perú"};
+    }
+
+    @Benchmark
+    public CustomerCreateRequest legacyStreams() {
+        reset();
+        legacy.sanitize(request);
+        return request;
+    }
+
+    @Benchmark
+    public CustomerCreateRequest singlePass() {
+        reset();
+        current.sanitize(request);
+        return request;
+    }
+
+    // Mismo costo en ambos benchmarks: solo reasigna referencias, sin asignar memoria
+    private void reset() {
+        request.setFirstName(values[0]);
+        request.setLastName(values[1]);
+        request.setBusinessName(values[2]);
+        request.setDocumentNumber(values[3]);
+        request.setPhone(values[4]);
+        request.setEmail(values[5]);
+        Address a = request.getAddress();
+        a.setLine1(values[6]);
+        a.setCity(values[7]);
+        a.setDistrict(values[8]);
+        a.setCountry(values[9]);
+    }
+}
@@ -0,0 +1,15 @@
+package com.nttdata.customersService.support;
+
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.integration.BlockHoundIntegration;
+
+// Los appenders de Logback escriben a la consola/archivo con un lock y E/S síncrona. Los callbacks que
+// registran (índices listos, change stream, refresco de estadísticas) corren en Schedulers.parallel;
+// se permite solo esa escritura, no el resto del camino
+public class LoggingBlockHoundIntegration implements BlockHoundIntegration {
+
+  @Override
+  public void applyTo(BlockHound.Builder builder) {
+    builder.allowBlockingCallsInside("ch.qos.logback.core.OutputStreamAppender", "subAppend");
+  }
+}
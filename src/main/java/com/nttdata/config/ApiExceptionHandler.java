@@ -8,7 +8,9 @@ import java.util.stream.Collectors;
 import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
 import com.nttdata.service.errors.ConflictException;
 import com.nttdata.service.errors.NotFoundException;
+import com.nttdata.service.errors.PreconditionFailedException;
 import com.nttdata.service.errors.UnprocessableException;
+import com.nttdata.service.errors.ValidationException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
 import org.springframework.core.codec.DecodingException;
@@ -61,6 +63,19 @@ public class ApiExceptionHandler {
             .body(problem(409,"Conflict", ex.getMessage(), exg.getRequest().getPath().value())));
   }
 
+  @ExceptionHandler(PreconditionFailedException.class)
+  public Mono<ResponseEntity<Map<String, Object>>> handlePrecondition(PreconditionFailedException ex, ServerWebExchange exg) {
+    return Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+            .body(problem(412,"Precondition Failed", ex.getMessage(), exg.getRequest().getPath().value())));
+  }
+
+  @ExceptionHandler(ValidationException.class)
+  public Mono<ResponseEntity<Map<String, Object>>> handleValidation(ValidationException ex, ServerWebExchange exg) {
+    var body = new HashMap<>(problem(422,"Unprocessable Entity", ex.getMessage(), exg.getRequest().getPath().value()));
+    body.put("errors", ex.getErrors());
+    return Mono.just(ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(body));
+  }
+
   @ExceptionHandler(UnprocessableException.class)
   public Mono<ResponseEntity<Map<String, Object>>> handleUnprocessable(UnprocessableException ex, ServerWebExchange exg) {
     return Mono.just(ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
@@ -0,0 +1,109 @@
+package com.nttdata.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import com.nttdata.service.SortingUtil;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+/**
+ * Índices de la colección customers. Los de listado se derivan de los filtros de
+ * CustomerServiceImpl.list (type, segment) combinados con los campos de SortingUtil,
+ * siempre con _id al final porque es el desempate del orden.
+ */
+public final class CustomerIndexCatalog {
+
+  public static final String UX_DOC_ACTIVE_TRUE = "ux_doc_active_true";
+  public static final String IX_DOC_ACTIVE_ELIGIBILITY = "ix_doc_active_eligibility";
+  public static final String IX_SEARCH_KEYS = "ix_search_keys";
+
+  static final List<List<String>> LIST_FILTERS = List.of(
+          List.of(),
+          List.of("type"),
+          List.of("segment"),
+          List.of("type", "segment"));
+
+  private static final Document SAMPLE_VALUES = new Document("type", "PERSONAL").append("segment", "STANDARD");
+
+  private CustomerIndexCatalog() {}
+
+  public static List<Index> indexes() {
+    List<Index> result = new ArrayList<>();
+    result.add(new Index()
+            .on("documentType", Sort.Direction.ASC)
+            .on("documentNumber", Sort.Direction.ASC)
+            .unique()
+            .partial(PartialIndexFilter.of(Criteria.where("active").is(true)))
+            .named(UX_DOC_ACTIVE_TRUE));
+    // Cubre la consulta de elegibilidad (filtro y proyección salen del índice, sin FETCH).
+    // Va aparte: agregar claves a ux_doc_active_true cambiaría qué se considera duplicado
+    result.add(new Index()
+            .on("documentType", Sort.Direction.ASC)
+            .on("documentNumber", Sort.Direction.ASC)
+            .on("active", Sort.Direction.ASC)
+            .on("type", Sort.Direction.ASC)
+            .on("segment", Sort.Direction.ASC)
+            .on("_id", Sort.Direction.ASC)
+            .partial(PartialIndexFilter.of(Criteria.where("active").is(true)))
+            .background()
+            .named(IX_DOC_ACTIVE_ELIGIBILITY));
+    // Multikey sobre las claves normalizadas: la regex ^prefijo se resuelve como rango del índice
+    result.add(new Index()
+            .on("searchKeys", Sort.Direction.ASC)
+            .background()
+            .named(IX_SEARCH_KEYS));
+
+    for (List<String> filter : LIST_FILTERS) {
+      for (String sort : sortProperties()) {
+        Index idx = new Index();
+        filter.forEach(f -> idx.on(f, Sort.Direction.ASC));
+        idx.on(sort, Sort.Direction.ASC)
+                .on("_id", Sort.Direction.ASC)
+                .background()
+                .named(listIndexName(filter, sort));
+        result.add(idx);
+      }
+    }
+    return result;
+  }
+
+  /** Formas de consulta del listado (filtro + orden) que deben quedar cubiertas por un índice. */
+  public static List<QueryShape> listShapes() {
+    List<QueryShape> shapes = new ArrayList<>();
+    for (List<String> filter : LIST_FILTERS) {
+      Document query = new Document();
+      filter.forEach(f -> query.append(f, SAMPLE_VALUES.get(f)));
+      for (String sort : sortProperties()) {
+        shapes.add(new QueryShape(listIndexName(filter, sort), query, new Document(sort, 1).append("_id", 1)));
+      }
+    }
+    return shapes;
+  }
+
+  static String listIndexName(List<String> filter, String sort) {
+    StringBuilder name = new StringBuilder("ix_list_");
+    filter.forEach(f -> name.append(f).append('_'));
+    return name.append(sort).toString();
+  }
+
+  private static TreeSet<String> sortProperties() {
+    return new TreeSet<>(SortingUtil.allowedProperties());
+  }
+
+  public static final class QueryShape {
+    public final String name;
+    public final Document filter;
+    public final Document sort;
+
+    public QueryShape(String name, Document filter, Document sort) {
+      this.name = name;
+      this.filter = filter;
+      this.sort = sort;
+    }
+  }
+}
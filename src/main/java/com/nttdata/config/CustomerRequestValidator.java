@@ -1,50 +1,105 @@
 package com.nttdata.config;
 
+import com.nttdata.domain.Customer;
 import com.nttdata.model.CustomerCreateRequest;
+import com.nttdata.model.CustomerSegment;
 import com.nttdata.model.CustomerType;
+import com.nttdata.model.CustomerUpdateRequest;
 import com.nttdata.model.DocumentType;
+import com.nttdata.service.ValidationResult;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
 @Component
 public class CustomerRequestValidator {
 
+    // Regla por tipo de documento: devuelve el mensaje de error o null si el número es válido
+    @FunctionalInterface
+    interface DocumentRule {
+        String check(String number);
+    }
+
+    private static final Map<DocumentType, DocumentRule> DOCUMENT_RULES = new EnumMap<>(DocumentType.class);
+
+    static {
+        DOCUMENT_RULES.put(DocumentType.DNI, n -> isDigits(n, 8) ? null : "DNI debe tener 8 dígitos");
+        DOCUMENT_RULES.put(DocumentType.RUC, n -> !isDigits(n, 11) ? "RUC debe tener 11 dígitos"
+                : rucCheckDigitMatches(n) ? null : "RUC tiene un dígito verificador inválido");
+        DOCUMENT_RULES.put(DocumentType.CE, n -> isCe(n) ? null : "CE debe ser alfanumérico de 9 a 12 caracteres");
+    }
+
+    private static final int[] RUC_WEIGHTS = {5, 4, 3, 2, 7, 6, 5, 4, 3, 2};
+    private static final ValidationResult NULL_REQUEST = ValidationResult.of(List.of("request es nulo"));
 
     public void validateCreate(CustomerCreateRequest r) {
+        checkCreate(r).orThrow();
+    }
+
+    // PUT reemplaza todos los campos editables, así que aplica las mismas reglas que el alta
+    public void validateUpdate(CustomerUpdateRequest r) {
+        checkUpdate(r).orThrow();
+    }
+
+    public ValidationResult checkCreate(CustomerCreateRequest r) {
         if (r == null) {
-            throw new IllegalArgumentException("request es nulo");
-        }
-        if (r.getType() == null) {
-            throw new IllegalArgumentException("type es obligatorio");
-        }
-        if (r.getDocumentType() == null) {
-            throw new IllegalArgumentException("documentType es obligatorio");
+            return NULL_REQUEST;
         }
-        if (!StringUtils.hasText(r.getDocumentNumber())) {
-            throw new IllegalArgumentException("documentNumber es obligatorio");
+        return check(r.getType(), null, r.getDocumentType(), r.getDocumentNumber(),
+                r.getFirstName(), r.getLastName(), r.getBusinessName());
+    }
+
+    public ValidationResult checkUpdate(CustomerUpdateRequest r) {
+        if (r == null) {
+            return NULL_REQUEST;
         }
+        return check(r.getType(), r.getSegment(), r.getDocumentType(), r.getDocumentNumber(),
+                r.getFirstName(), r.getLastName(), r.getBusinessName());
+    }
 
-        if (r.getType() == CustomerType.PERSONAL) {
-            if (!hasTextBetween(r.getFirstName(), 1, 60) || !hasTextBetween(r.getLastName(), 1, 60)) {
-                throw new IllegalStateException("firstName y lastName son obligatorios para PERSONAL");
+    // Acumula todas las violaciones; la lista solo se crea si hay alguna
+    private ValidationResult check(CustomerType type, CustomerSegment segment, DocumentType documentType,
+                                   String documentNumber, String firstName, String lastName, String businessName) {
+        List<String> errors = null;
+        if (type == null) {
+            errors = add(errors, "type es obligatorio");
+        } else if (type == CustomerType.PERSONAL) {
+            if (!hasTextBetween(firstName, 1, 60) || !hasTextBetween(lastName, 1, 60)) {
+                errors = add(errors, "firstName y lastName son obligatorios para PERSONAL");
             }
-        } else if (r.getType() == CustomerType.BUSINESS) {
-            if (!hasTextBetween(r.getBusinessName(), 2, 120)) {
-                throw new IllegalStateException("businessName es obligatorio para BUSINESS");
+        } else if (type == CustomerType.BUSINESS) {
+            if (!hasTextBetween(businessName, 2, 120)) {
+                errors = add(errors, "businessName es obligatorio para BUSINESS");
             }
         }
-
-        String num = r.getDocumentNumber().trim();
-        DocumentType dt = r.getDocumentType();
-        if (dt == DocumentType.DNI && !num.matches(RE_DNI)) {
-            throw new IllegalStateException("DNI debe tener 8 dígitos");
+        if (type != null && segment != null) {
+            String error = Customer.checkSegment(type.getValue(), segment.getValue());
+            if (error != null) {
+                errors = add(errors, error);
+            }
         }
-        if (dt == DocumentType.RUC && !num.matches(RE_RUC)) {
-            throw new IllegalStateException("RUC debe tener 11 dígitos");
+        if (documentType == null) {
+            errors = add(errors, "documentType es obligatorio");
         }
-        if (dt == DocumentType.CE && !num.matches(RE_CE)) {
-            throw new IllegalStateException("CE debe ser alfanumérico de 9 a 12 caracteres");
+        if (!StringUtils.hasText(documentNumber)) {
+            errors = add(errors, "documentNumber es obligatorio");
+        } else if (documentType != null) {
+            String error = DOCUMENT_RULES.get(documentType).check(documentNumber.trim());
+            if (error != null) {
+                errors = add(errors, error);
+            }
         }
+        return ValidationResult.of(errors);
+    }
+
+    private static List<String> add(List<String> errors, String error) {
+        List<String> result = errors == null ? new ArrayList<>(2) : errors;
+        result.add(error);
+        return result;
     }
 
     private boolean hasTextBetween(String v, int min, int max) {
@@ -52,7 +107,36 @@ public class CustomerRequestValidator {
         String s = v.trim();
         return !s.isEmpty() && s.length() >= min && s.length() <= max;
     }
-    private static final String RE_DNI = "^\\d{8}$";
-    private static final String RE_RUC = "^\\d{11}$";
-    private static final String RE_CE  = "^[A-Za-z0-9-]{9,12}$";
+
+    // Escáneres a mano: solo ASCII, sin Pattern ni asignaciones
+    private static boolean isDigits(String s, int length) {
+        if (s.length() != length) return false;
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+
+    private static boolean isCe(String s) {
+        int len = s.length();
+        if (len < 9 || len > 12) return false;
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            boolean ok = (c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || c == '-';
+            if (!ok) return false;
+        }
+        return true;
+    }
+
+    // Módulo 11 de SUNAT: r = 11 - (suma ponderada % 11); 10 -> 0 y 11 -> 1
+    static boolean rucCheckDigitMatches(String ruc) {
+        int sum = 0;
+        for (int i = 0; i < RUC_WEIGHTS.length; i++) {
+            sum += (ruc.charAt(i) - '0') * RUC_WEIGHTS[i];
+        }
+        int r = 11 - sum % 11;
+        int expected = r == 10 ? 0 : r == 11 ? 1 : r;
+        return ruc.charAt(10) - '0' == expected;
+    }
 }
@@ -0,0 +1,109 @@
+package com.nttdata.config;
+
+import java.time.Duration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "customers")
+public class CustomersProperties {
+
+  private Indexes indexes = new Indexes();
+  private Writes writes = new Writes();
+  private Bulk bulk = new Bulk();
+  private Export export = new Export();
+  private Cache cache = new Cache();
+  private Batching batching = new Batching();
+  private Statistics statistics = new Statistics();
+  private Search search = new Search();
+
+  @Data
+  public static class Indexes {
+    // Tiempo máximo que el arranque espera a que existan los índices
+    private Duration bootstrapTimeout = Duration.ofSeconds(60);
+  }
+
+  @Data
+  public static class Writes {
+    // true: confiar en ux_doc_active_true (un solo round trip); false: pre-chequeo existsBy
+    private boolean relyOnUniqueIndex = true;
+  }
+
+  @Data
+  public static class Bulk {
+    // Registros por insertMany; acota la memoria usada por una importación
+    private int batchSize = 500;
+  }
+
+  @Data
+  public static class Export {
+    // Documentos por getMore del cursor de exportación
+    private int batchSize = 1000;
+  }
+
+  @Data
+  public static class Cache {
+    private Eligibility eligibility = new Eligibility();
+    private Lookup lookup = new Lookup();
+    private Count count = new Count();
+    private ChangeStream changeStream = new ChangeStream();
+  }
+
+  @Data
+  public static class Eligibility {
+    private boolean enabled = true;
+    private long maxSize = 100_000;
+    // Respaldo si el change stream no está disponible: cota de lo desactualizada que puede estar una entrada
+    private Duration ttl = Duration.ofMinutes(5);
+  }
+
+  @Data
+  public static class Lookup {
+    // false: NoOpCustomerLookupCache, cada getById/getByDocumentNumber va a Mongo
+    private boolean enabled = true;
+    private long maxSize = 50_000;
+    private Duration ttl = Duration.ofMinutes(5);
+    // Entradas de "no existe": cortas para que un alta desde otra instancia sin change stream se vea pronto
+    private Duration negativeTtl = Duration.ofSeconds(30);
+  }
+
+  @Data
+  public static class Count {
+    // Totales de listado por (type, segment); evita un conteo por cada cambio de página
+    private boolean enabled = true;
+    private Duration ttl = Duration.ofSeconds(10);
+  }
+
+  @Data
+  public static class ChangeStream {
+    // Requiere replica set o sharded cluster; en un standalone queda solo el TTL
+    private boolean enabled = true;
+  }
+
+  @Data
+  public static class Batching {
+    // Agrupa findById / findByDocumentNumber concurrentes en un $in; apagado por defecto
+    private boolean enabled = false;
+    // Cuánto espera la primera clave a que lleguen otras
+    private Duration window = Duration.ofMillis(2);
+    // Al llegar a este número de claves se consulta sin esperar la ventana
+    private int maxKeys = 100;
+  }
+
+  @Data
+  public static class Statistics {
+    // true: GET /statistics lee el resumen de customer_statistics, recalculado cada refreshInterval
+    private boolean materialized = false;
+    private Duration refreshInterval = Duration.ofMinutes(5);
+  }
+
+  @Data
+  public static class Search {
+    // Completa searchKeys en documentos creados antes del campo; dejar en false una vez migrados
+    private boolean backfillOnStartup = false;
+    private int backfillBatchSize = 500;
+  }
+}
@@ -2,11 +2,17 @@ package com.nttdata.config;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.openapitools.jackson.nullable.JsonNullableModule;
+import org.springframework.boot.web.codec.CodecCustomizer;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 
 @Configuration
 public class JacksonConfig {
@@ -22,4 +28,15 @@ public class JacksonConfig {
 
 
   }
+
+  // Smile con la misma configuración que JSON; se elige cuando el cliente pide application/x-jackson-smile.
+  // El builder de Boot es prototype y ya trae aplicados los customizers, incluido jsonCustomizer
+  @Bean
+  public CodecCustomizer smileCodecCustomizer(Jackson2ObjectMapperBuilder builder) {
+    ObjectMapper smile = builder.factory(new SmileFactory()).build();
+    return configurer -> {
+      configurer.customCodecs().register(new Jackson2SmileEncoder(smile));
+      configurer.customCodecs().register(new Jackson2SmileDecoder(smile));
+    };
+  }
 }
@@ -0,0 +1,26 @@
+package com.nttdata.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+// Incluido en el grupo readiness: no se enruta tráfico hasta que los índices existan
+@Component
+@RequiredArgsConstructor
+public class MongoIndexesHealthIndicator implements HealthIndicator {
+
+  private final MongoIndexesInitializer initializer;
+
+  @Override
+  public Health health() {
+    switch (initializer.getState()) {
+      case READY:
+        return Health.up().build();
+      case FAILED:
+        return Health.down(initializer.getFailure()).build();
+      default:
+        return Health.outOfService().withDetail("state", initializer.getState()).build();
+    }
+  }
+}
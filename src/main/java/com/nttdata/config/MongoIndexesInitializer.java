@@ -1,34 +1,127 @@
 package com.nttdata.config;
 
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.nttdata.domain.Customer;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
-import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
-import org.springframework.data.mongodb.core.index.Index;
-import org.springframework.data.mongodb.core.index.PartialIndexFilter;
-import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
 @Component
 @RequiredArgsConstructor
+@Slf4j
 public class MongoIndexesInitializer {
 
+    public enum State { PENDING, READY, FAILED }
+
     private final ReactiveMongoTemplate template;
+    private final CustomersProperties properties;
 
+    @Getter
+    private volatile State state = State.PENDING;
+    @Getter
+    private volatile Exception failure;
+
+    // Bloquea el arranque hasta que los índices existan (o venza el timeout); Boot publica
+    // ACCEPTING_TRAFFIC después de este listener y MongoIndexesHealthIndicator cubre el resto
     @EventListener(ApplicationReadyEvent.class)
     public void init() {
-        Index idx = new Index()
-                .on("documentType", Sort.Direction.ASC)
-                .on("documentNumber", Sort.Direction.ASC)
-                .unique()
-                .partial(PartialIndexFilter.of(Criteria.where("active").is(true)))
-                .named("ux_doc_active_true");
-
-        template.indexOps(com.nttdata.domain.Customer.class)
-                .ensureIndex(idx)
-                .subscribe();
+        Duration timeout = properties.getIndexes().getBootstrapTimeout();
+        try {
+            bootstrap().toFuture().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            log.warn("Los índices de customers no terminaron en {}; readiness seguirá fuera de servicio hasta que terminen",
+                    timeout);
+        } catch (ExecutionException ex) {
+            log.error("No se pudieron crear los índices de customers", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    Mono<Void> bootstrap() {
+        return Mono.defer(() -> {
+                    ReactiveIndexOperations ops = template.indexOps(Customer.class);
+                    return Flux.fromIterable(CustomerIndexCatalog.indexes())
+                            .concatMap(ops::ensureIndex)
+                            .then();
+                })
+                .retryWhen(Retry.backoff(3, Duration.ofSeconds(1)))
+                .doOnSuccess(v -> {
+                    state = State.READY;
+                    log.info("Índices de customers listos");
+                    checkListCoverage().subscribe();
+                })
+                .doOnError(ex -> {
+                    // Health.down solo acepta Exception; un Error llega envuelto
+                    failure = ex instanceof Exception ? (Exception) ex : new IllegalStateException(ex);
+                    state = State.FAILED;
+                });
+    }
+
+    // Explain de cada forma de listado: avisa si el plan ganador hace COLLSCAN o SORT en memoria
+    Mono<Void> checkListCoverage() {
+        String collection = template.getCollectionName(Customer.class);
+        return Flux.fromIterable(CustomerIndexCatalog.listShapes())
+                .concatMap(shape -> template.executeCommand(explain(collection, shape))
+                        .doOnNext(plan -> {
+                            List<String> stages = winningPlanStages(plan);
+                            if (stages.contains("COLLSCAN") || stages.contains("SORT")) {
+                                log.warn("Consulta de listado {} sin cobertura de índice (filtro={}, orden={}, etapas={})",
+                                        shape.name, shape.filter.toJson(), shape.sort.toJson(), stages);
+                            }
+                        })
+                        .onErrorResume(ex -> {
+                            log.warn("No se pudo ejecutar explain para {}: {}", shape.name, ex.getMessage());
+                            return Mono.empty();
+                        }))
+                .then();
+    }
+
+    private static Document explain(String collection, CustomerIndexCatalog.QueryShape shape) {
+        Document find = new Document("find", collection)
+                .append("filter", shape.filter)
+                .append("sort", shape.sort)
+                .append("limit", 20);
+        return new Document("explain", find).append("verbosity", "queryPlanner");
+    }
+
+    public static List<String> winningPlanStages(Document explain) {
+        List<String> stages = new ArrayList<>();
+        collectStages(explain.get("queryPlanner"), stages);
+        return stages;
+    }
+
+    private static void collectStages(Object node, List<String> stages) {
+        if (node instanceof Document) {
+            Document doc = (Document) node;
+            Object stage = doc.get("stage");
+            if (stage instanceof String) {
+                stages.add((String) stage);
+            }
+            // rejectedPlans no cuenta: solo interesa el plan que se ejecutará
+            doc.forEach((key, value) -> {
+                if (!"rejectedPlans".equals(key)) {
+                    collectStages(value, stages);
+                }
+            });
+        } else if (node instanceof List) {
+            ((List<?>) node).forEach(item -> collectStages(item, stages));
+        }
     }
 }
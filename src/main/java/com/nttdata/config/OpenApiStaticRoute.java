@@ -1,21 +1,147 @@
 package com.nttdata.config;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.server.*;
+import reactor.core.publisher.Mono;
 
 @Configuration
 public class OpenApiStaticRoute {
 
+    static final MediaType YAML = MediaType.valueOf("application/yaml");
+    static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic();
+
     @Bean
-    public RouterFunction<ServerResponse> openApiYamlRoute(){
-        return RouterFunctions.route(RequestPredicates.GET("/openapi.yml"),
-                req -> ServerResponse.ok()
-                        .contentType(MediaType.valueOf("application/yaml"))
-                        .body(BodyInserters.fromResource(new ClassPathResource("openapi.yml"))));
+    public RouterFunction<ServerResponse> openApiYamlRoute() {
+        Spec spec = Spec.load(new ClassPathResource("openapi.yml"));
+        return RouterFunctions.route(RequestPredicates.GET("/openapi.yml"), spec::serve);
     }
 
+    // Contenido leído y comprimido una sola vez; cada respuesta envuelve el mismo arreglo sin copiarlo
+    static final class Spec {
+        private final ByteBuffer identity;
+        private final ByteBuffer gzip;
+        private final String etag;
+        private final String gzipEtag;
+
+        private Spec(byte[] bytes) {
+            this.identity = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+            this.gzip = ByteBuffer.wrap(gzip(bytes)).asReadOnlyBuffer();
+            // ETag fuerte por representación: la comprimida no es byte a byte igual a la original
+            String hash = sha256(bytes);
+            this.etag = "\"" + hash + "\"";
+            this.gzipEtag = "\"" + hash + "-gzip\"";
+        }
+
+        static Spec load(ClassPathResource resource) {
+            try (InputStream in = resource.getInputStream()) {
+                return new Spec(in.readAllBytes());
+            } catch (IOException ex) {
+                throw new UncheckedIOException("No se pudo leer " + resource.getPath(), ex);
+            }
+        }
+
+        Mono<ServerResponse> serve(ServerRequest req) {
+            boolean gzipped = acceptsGzip(req.headers().header(HttpHeaders.ACCEPT_ENCODING));
+            String tag = gzipped ? gzipEtag : etag;
+            if (matches(req.headers().header(HttpHeaders.IF_NONE_MATCH), tag)) {
+                return ServerResponse.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(tag)
+                        .cacheControl(CACHE_CONTROL)
+                        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                        .build();
+            }
+            // duplicate(): posición propia por respuesta sobre el mismo contenido de solo lectura
+            ByteBuffer body = (gzipped ? gzip : identity).duplicate();
+            ServerResponse.BodyBuilder ok = ServerResponse.ok()
+                    .contentType(YAML)
+                    .contentLength(body.remaining())
+                    .eTag(tag)
+                    .cacheControl(CACHE_CONTROL)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (gzipped) {
+                ok.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            return ok.body(BodyInserters.fromDataBuffers(
+                    Mono.fromSupplier(() -> DefaultDataBufferFactory.sharedInstance.wrap(body.duplicate()))));
+        }
+
+        // Comparación débil, como pide RFC 7232 para If-None-Match
+        private static boolean matches(List<String> ifNoneMatch, String tag) {
+            for (String header : ifNoneMatch) {
+                for (String candidate : header.split(",")) {
+                    String c = candidate.trim();
+                    if (c.startsWith("W/")) {
+                        c = c.substring(2);
+                    }
+                    if (c.equals("*") || c.equals(tag)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        // gzip aceptado salvo que venga con q=0
+        private static boolean acceptsGzip(List<String> acceptEncoding) {
+            for (String header : acceptEncoding) {
+                for (String coding : header.split(",")) {
+                    String[] parts = coding.split(";");
+                    if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                        continue;
+                    }
+                    for (int i = 1; i < parts.length; i++) {
+                        String param = parts[i].trim();
+                        if (param.startsWith("q=")) {
+                            try {
+                                return Double.parseDouble(param.substring(2)) > 0;
+                            } catch (NumberFormatException ex) {
+                                return false;
+                            }
+                        }
+                    }
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static byte[] gzip(byte[] bytes) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+            try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+                gz.write(bytes);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return out.toByteArray();
+        }
+
+        private static String sha256(byte[] bytes) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+                return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
 }
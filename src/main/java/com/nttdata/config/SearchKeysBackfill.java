@@ -0,0 +1,29 @@
+package com.nttdata.config;
+
+import com.nttdata.repository.CustomerRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// Migración opcional de searchKeys; corre en segundo plano, sin bloquear el arranque
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchKeysBackfill {
+
+    private final CustomerRepository repo;
+    private final CustomersProperties properties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        CustomersProperties.Search cfg = properties.getSearch();
+        if (!cfg.isBackfillOnStartup()) {
+            return;
+        }
+        repo.backfillSearchKeys(cfg.getBackfillBatchSize())
+                .subscribe(updated -> log.info("searchKeys completado en {} clientes", updated),
+                        ex -> log.error("No se pudo completar searchKeys", ex));
+    }
+}
@@ -1,13 +1,21 @@
 package com.nttdata.controller;
 
+import com.nttdata.model.BulkCreateResult;
+import com.nttdata.model.CustomerBatchResponse;
 import com.nttdata.model.CustomerCreateRequest;
+import com.nttdata.model.CustomerIdsRequest;
 import com.nttdata.model.CustomerResponse;
 import com.nttdata.model.CustomerSegment;
+import com.nttdata.model.CustomerStatistics;
 import com.nttdata.model.CustomerType;
 import com.nttdata.model.CustomerUpdateRequest;
+import com.nttdata.model.DocumentKeysRequest;
 import com.nttdata.model.DocumentType;
+import com.nttdata.model.EligibilityBatchRequest;
+import com.nttdata.model.EligibilityBatchResponse;
 import com.nttdata.model.EligibilityResponse;
 import com.nttdata.service.CustomerService;
+import com.nttdata.service.CustomerStatisticsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -17,12 +25,19 @@ import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CustomersApiDelegateImpl implements CustomersApiDelegate {
 
   private final CustomerService service;
+  private final CustomerStatisticsService statisticsService;
+
+  static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+  static final String TOTAL_COUNT_HEADER = "X-Total-Count";
 
   @Override
   public Mono<ResponseEntity<Flux<CustomerResponse>>> listCustomers(
@@ -32,9 +47,22 @@ public class CustomersApiDelegateImpl implements CustomersApiDelegate {
           Integer size,
           String sort,
           String direction,
+          String cursor,
+          String fields,
+          Boolean includeTotal,
           ServerWebExchange exchange) {
-    Flux<CustomerResponse> body = service.list(type, segment, page, size, sort, direction);
-    return Mono.just(ResponseEntity.ok(body));  }
+    return service.list(type, segment, page, size, sort, direction, cursor, fields, includeTotal)
+            .map(p -> {
+              ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+              if (p.getNextCursor() != null) {
+                ok.header(NEXT_CURSOR_HEADER, p.getNextCursor());
+              }
+              if (p.getTotal() != null) {
+                ok.header(TOTAL_COUNT_HEADER, String.valueOf(p.getTotal()));
+              }
+              return ok.body(Flux.fromIterable(p.getItems()));
+            });
+  }
 
   @Override
   public Mono<ResponseEntity<CustomerResponse>> createCustomer(
@@ -45,15 +73,22 @@ public class CustomersApiDelegateImpl implements CustomersApiDelegate {
 
   @Override
   public Mono<ResponseEntity<CustomerResponse>> getCustomerById(
-          String id, ServerWebExchange exchange) {
-    return service.getById(id).map(ResponseEntity::ok);
+          String id, String ifNoneMatch, ServerWebExchange exchange) {
+    return service.getById(id).map(r -> {
+      String etag = etag(r);
+      if (matchesAny(ifNoneMatch, etag)) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<CustomerResponse>build();
+      }
+      return ResponseEntity.ok().eTag(etag).body(r);
+    });
   }
 
   @Override
   public Mono<ResponseEntity<CustomerResponse>> updateCustomer(
-          String id, Mono<CustomerUpdateRequest> request, ServerWebExchange exchange) {
-    return request.flatMap(r -> service.update(id, r))
-            .map(ResponseEntity::ok);
+          String id, Mono<CustomerUpdateRequest> request, String ifMatch, ServerWebExchange exchange) {
+    Set<Long> expectedVersions = expectedVersions(ifMatch);
+    return request.flatMap(r -> service.update(id, r, expectedVersions))
+            .map(r -> ResponseEntity.ok().eTag(etag(r)).body(r));
   }
 
   @Override
@@ -68,11 +103,103 @@ public class CustomersApiDelegateImpl implements CustomersApiDelegate {
             .map(ResponseEntity::ok);
   }
 
+  @Override
+  public Mono<ResponseEntity<EligibilityBatchResponse>> getEligibilityBatch(
+          Mono<EligibilityBatchRequest> request, ServerWebExchange exchange) {
+    return request.flatMap(r -> service.getEligibilityBatch(r.getDocuments()))
+            .map(ResponseEntity::ok);
+  }
+
+  @Override
+  public Mono<ResponseEntity<Flux<CustomerResponse>>> searchCustomers(
+          String q, Integer limit, ServerWebExchange exchange) {
+    return Mono.just(ResponseEntity.ok(service.search(q, limit)));
+  }
+
+  @Override
+  public Mono<ResponseEntity<CustomerStatistics>> getCustomerStatistics(ServerWebExchange exchange) {
+    return statisticsService.getStatistics().map(ResponseEntity::ok);
+  }
+
   @Override
   public Mono<ResponseEntity<CustomerResponse>> getCustomerByDocumentNumber(
           String documentNumber, ServerWebExchange exchange) {
     return service.getByDocumentNumber(documentNumber)
             .map(ResponseEntity::ok);
   }
-}
 
+  @Override
+  public Mono<ResponseEntity<CustomerBatchResponse>> batchGetCustomers(
+          Mono<CustomerIdsRequest> request, ServerWebExchange exchange) {
+    return request.flatMap(r -> service.getByIds(r.getIds()))
+            .map(ResponseEntity::ok);
+  }
+
+  @Override
+  public Mono<ResponseEntity<CustomerBatchResponse>> batchGetCustomersByDocument(
+          Mono<DocumentKeysRequest> request, ServerWebExchange exchange) {
+    return request.flatMap(r -> service.getByDocuments(r.getDocuments()))
+            .map(ResponseEntity::ok);
+  }
+
+  @Override
+  public Mono<ResponseEntity<Flux<BulkCreateResult>>> bulkCreateCustomers(
+          Flux<CustomerCreateRequest> records, ServerWebExchange exchange) {
+    return Mono.just(ResponseEntity.ok(service.bulkCreate(records)));
+  }
+
+  @Override
+  public Mono<ResponseEntity<Flux<CustomerResponse>>> exportCustomers(
+          CustomerType type, CustomerSegment segment, ServerWebExchange exchange) {
+    return Mono.just(ResponseEntity.ok(service.export(type, segment)));
+  }
+
+  // ===== ETag (versión del documento) =====
+
+  // Sin versión (documento anterior a @Version) = versión 0, igual que el filtro de updateFields
+  static String etag(CustomerResponse r) {
+    return "\"" + (r.getVersion() == null ? 0L : r.getVersion()) + "\"";
+  }
+
+  // If-None-Match usa comparación débil: W/"3" equivale a "3"
+  static boolean matchesAny(String header, String etag) {
+    if (header == null || header.isBlank()) {
+      return false;
+    }
+    for (String tag : header.split(",")) {
+      String t = tag.trim();
+      if ("*".equals(t) || stripWeak(t).equals(etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // null = sin precondición (ausente o *). Cada etiqueta fuerte de la lista aporta una versión aceptable;
+  // If-Match compara en modo fuerte, así que W/"3" nunca coincide, igual que lo que no es una versión.
+  // Sin ninguna versión válida el set queda vacío y el PUT responde 412
+  static Set<Long> expectedVersions(String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank()) {
+      return null;
+    }
+    Set<Long> versions = new LinkedHashSet<>();
+    for (String raw : ifMatch.split(",")) {
+      String tag = raw.trim();
+      if ("*".equals(tag)) {
+        return null;
+      }
+      if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+        try {
+          versions.add(Long.parseLong(tag.substring(1, tag.length() - 1)));
+        } catch (NumberFormatException ignored) {
+          // no aporta versión
+        }
+      }
+    }
+    return versions;
+  }
+
+  private static String stripWeak(String tag) {
+    return tag.startsWith("W/") ? tag.substring(2) : tag;
+  }
+}
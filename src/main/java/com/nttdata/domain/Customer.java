@@ -1,11 +1,18 @@
 package com.nttdata.domain;
 
+import java.text.Normalizer;
 import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -43,17 +50,34 @@ public class Customer {
 
   private String displayName;
 
+  @Version
+  private Long version;
+
+  // Claves normalizadas (minúsculas, sin tildes) para la búsqueda por prefijo; índice ix_search_keys
+  private List<String> searchKeys;
+
+  private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
   public static String defaultSegment() {
     return "STANDARD";
   }
 
   public void validateSegment() {
+    String error = checkSegment(type, segment);
+    if (error != null) {
+      throw new IllegalStateException(error);
+    }
+  }
+
+  // null si la combinación es válida; CustomerRequestValidator la usa para responder 422 sin lanzar
+  public static String checkSegment(String type, String segment) {
     if ("PERSONAL".equals(type) && "PYME".equals(segment)) {
-      throw new IllegalStateException("A PERSONAL customer cannot be PYME");
+      return "A PERSONAL customer cannot be PYME";
     }
     if ("BUSINESS".equals(type) && "VIP".equals(segment)) {
-      throw new IllegalStateException("A BUSINESS customer cannot be VIP");
+      return "A BUSINESS customer cannot be VIP";
     }
+    return null;
   }
 
   public void refreshDisplayName() {
@@ -63,5 +87,34 @@ public class Customer {
    setDisplayName(name.isBlank() ? null : name);
   }
 
+  // displayName completo y cada una de sus palabras (para encontrar por apellido), email y documento
+  public void refreshSearchKeys() {
+    Set<String> keys = new LinkedHashSet<>();
+    String name = searchKey(getDisplayName());
+    if (name != null) {
+      keys.add(name);
+      for (String word : name.split(" ")) {
+        if (!word.isEmpty()) {
+          keys.add(word);
+        }
+      }
+    }
+    String mail = searchKey(getEmail());
+    if (mail != null) {
+      keys.add(mail);
+    }
+    String doc = searchKey(getDocumentNumber());
+    if (doc != null) {
+      keys.add(doc);
+    }
+    setSearchKeys(keys.isEmpty() ? null : List.copyOf(keys));
+  }
 
+  public static String searchKey(String value) {
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    String stripped = COMBINING_MARKS.matcher(Normalizer.normalize(value.trim(), Normalizer.Form.NFD)).replaceAll("");
+    return stripped.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+  }
 }
@@ -5,6 +5,7 @@ import com.nttdata.model.*;
 
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.Set;
 
 
 public final class CustomerMapper {
@@ -33,6 +34,7 @@ public final class CustomerMapper {
             .displayName(null)
             .build();
     c.refreshDisplayName();
+    c.refreshSearchKeys();
     return c;
   }
 
@@ -64,15 +66,25 @@ public final class CustomerMapper {
     target.setActive(r.getActive());
     target.validateSegment();
     target.refreshDisplayName();
+    target.refreshSearchKeys();
   }
 
   // DOMAIN → API (RESPONSE)
   public static CustomerResponse toApi(Customer d) {
-    Address addr = new Address()
-            .line1(d.getAddressLine1())
-            .city(d.getAddressCity())
-            .district(d.getAddressDistrict())
-            .country(d.getAddressCountry());
+    return toApi(d, null);
+  }
+
+  // fields: campos proyectados del documento (FieldSelection.parse); null = documento completo
+  public static CustomerResponse toApi(Customer d, Set<String> fields) {
+    // Sin ningún dato de dirección (o proyectada fuera) no se serializa un objeto vacío
+    Address addr = d.getAddressLine1() == null && d.getAddressCity() == null
+            && d.getAddressDistrict() == null && d.getAddressCountry() == null
+            ? null
+            : new Address()
+                    .line1(d.getAddressLine1())
+                    .city(d.getAddressCity())
+                    .district(d.getAddressDistrict())
+                    .country(d.getAddressCountry());
 
     CustomerResponse resp = new CustomerResponse();
     resp.setId(d.getId());
@@ -90,6 +102,10 @@ public final class CustomerMapper {
     resp.setPhone(d.getPhone());
     resp.setAddress(addr);
     resp.setActive(d.getActive());
+    // Documentos anteriores a @Version no tienen el campo: equivalen a la versión 0 (ETag "0").
+    // Si la proyección no lo trajo no se inventa: un 0 falso acabaría como If-Match
+    boolean versionFetched = fields == null || fields.contains("version");
+    resp.setVersion(versionFetched && d.getVersion() == null ? Long.valueOf(0L) : d.getVersion());
     return resp;
   }
 
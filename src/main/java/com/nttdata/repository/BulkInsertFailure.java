@@ -0,0 +1,12 @@
+package com.nttdata.repository;
+
+import lombok.Value;
+
+@Value
+public class BulkInsertFailure {
+
+  // Posición dentro del lote enviado a insertMany
+  int position;
+  boolean duplicateKey;
+  String message;
+}
@@ -0,0 +1,26 @@
+package com.nttdata.repository;
+
+import java.util.Set;
+
+import lombok.Builder;
+import lombok.Value;
+import org.springframework.data.domain.Sort;
+
+@Value
+@Builder
+public class CustomerListQuery {
+
+  String type;
+  String segment;
+  String property;
+  Sort.Direction direction;
+  int limit;
+  // Solo se usa sin keyset (afterId null)
+  long skip;
+  // Campos del documento a traer; null o vacío = documento completo
+  Set<String> fields;
+
+  // Keyset: último valor de orden visto y su _id como desempate
+  Object afterValue;
+  String afterId;
+}
@@ -0,0 +1,55 @@
+package com.nttdata.repository;
+
+import com.nttdata.config.CustomersProperties;
+import com.nttdata.domain.Customer;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+import java.util.function.Function;
+
+// Lecturas puntuales con micro-batching opcional: con customers.batching.enabled=false delega tal cual en el repositorio
+@Component
+public class CustomerLookupBatcher {
+
+  private final CustomerRepository repo;
+  private final boolean enabled;
+  private final KeyBatcher<String, Customer> byId;
+  private final KeyBatcher<String, Customer> byDocumentNumber;
+
+  public CustomerLookupBatcher(CustomerRepository repo, CustomersProperties properties, MeterRegistry registry) {
+    CustomersProperties.Batching cfg = properties.getBatching();
+    this.repo = repo;
+    this.enabled = cfg.isEnabled();
+    this.byId = new KeyBatcher<>(cfg.getWindow(), cfg.getMaxKeys(),
+            repo::findAllById, Customer::getId, CustomerLookupBatcher::canonicalId, batchSizes(registry, "id"));
+    this.byDocumentNumber = new KeyBatcher<>(cfg.getWindow(), cfg.getMaxKeys(),
+            repo::findByDocumentNumberInAndActiveIsTrue, Customer::getDocumentNumber, Function.identity(),
+            batchSizes(registry, "documentNumber"));
+  }
+
+  public Mono<Customer> findById(String id) {
+    return enabled ? byId.load(id) : repo.findById(id);
+  }
+
+  public Mono<Customer> findActiveByDocumentNumber(String documentNumber) {
+    return enabled ? byDocumentNumber.load(documentNumber) : repo.findByDocumentNumberAndActiveIsTrue(documentNumber);
+  }
+
+  // Mongo acepta el hex del ObjectId en mayúsculas pero siempre devuelve minúsculas
+  public static String canonicalId(String id) {
+    return id != null && ObjectId.isValid(id) ? id.toLowerCase(Locale.ROOT) : id;
+  }
+
+  private static DistributionSummary batchSizes(MeterRegistry registry, String lookup) {
+    return DistributionSummary.builder("customers.lookup.batch.size")
+            .description("Claves resueltas por cada consulta $in del micro-batching")
+            .baseUnit("keys")
+            .tag("lookup", lookup)
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(registry);
+  }
+}
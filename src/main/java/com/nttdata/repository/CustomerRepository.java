@@ -1,29 +1,21 @@
 package com.nttdata.repository;
 
 import com.nttdata.domain.Customer;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.List;
+import java.util.Collection;
 
-public interface CustomerRepository extends ReactiveMongoRepository<Customer, String> {
+public interface CustomerRepository extends ReactiveMongoRepository<Customer, String>, CustomerRepositoryCustom {
 
   Mono<Customer> findByDocumentNumberAndActiveIsTrue(String documentNumber);
-  Flux<Customer> findAllByDocumentTypeAndDocumentNumberAndActiveIsTrue(String documentType, String documentNumber);
+  Flux<Customer> findByDocumentNumberInAndActiveIsTrue(Collection<String> documentNumbers);
+  // Solo _id, type y segment: lo que usa toEligibility, servido desde ix_doc_active_eligibility sin leer el documento
+  @Query(value = "{ 'documentType': ?0, 'documentNumber': ?1, 'active': true }", fields = "{ 'type': 1, 'segment': 1 }")
+  Flux<Customer> findEligibilityByDocument(String documentType, String documentNumber);
   Mono<Boolean> existsByDocumentTypeAndDocumentNumberAndActiveIsTrue(String documentType, String documentNumber);
   Mono<Boolean> existsByDocumentTypeAndDocumentNumberAndActiveIsTrueAndIdNot(
           String documentType, String documentNumber, String id);
-  Flux<Customer> findByType(String type, Sort sort);
-  Flux<Customer> findBySegment(String segment, Sort sort);
-  Flux<Customer> findByTypeAndSegment(String type, String segment, Sort sort);
-
-    List<Customer> findAllByTypeAndActiveIsTrue(String type, Boolean active);
-
-    List<Customer> findAllByTypeAndSegmentAndActiveIsTrue(String type, String segment, Boolean active);
-
-    List<Customer> findByTypeAndActiveIsTrue(String type, Boolean active);
-
-    List<Customer> findByTypeAndSegmentAndActiveIsTrue(String type, String segment, Boolean active);
 }
@@ -0,0 +1,45 @@
+package com.nttdata.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.nttdata.domain.Customer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface CustomerRepositoryCustom {
+
+  // Página por offset (skip) o por keyset (afterId), con proyección opcional de campos
+  Flux<Customer> findPage(CustomerListQuery query);
+
+  // Sin filtros usa la metadata de la colección (estimatedDocumentCount); con filtros, countDocuments
+  Mono<Long> countCustomers(String type, String segment);
+
+  // Vacío si no existe o ya estaba inactivo
+  Mono<Customer> softDelete(String id, Instant deletedAt);
+
+  // $set de los campos editables; devuelve el documento ANTERIOR (para invalidar lo que apuntaba a él).
+  // Vacío si no existe o su versión no está entre las esperadas (expectedVersions null = sin chequeo)
+  Mono<Customer> updateFields(String id, Set<Long> expectedVersions, Customer changes);
+
+  // Una sola consulta sobre ux_doc_active_true: active=true y $or por tipo de documento con $in de números
+  Flux<Customer> findActiveByDocuments(Map<String, ? extends Collection<String>> numbersByType);
+
+  // Igual que findActiveByDocuments pero solo con los campos de elegibilidad (cubierta por ix_doc_active_eligibility)
+  Flux<Customer> findEligibilityByDocuments(Map<String, ? extends Collection<String>> numbersByType);
+
+  // Prefijo ya normalizado (Customer.searchKey) sobre searchKeys, con tope de resultados
+  Flux<Customer> searchByPrefix(String normalizedPrefix, int limit);
+
+  // Completa searchKeys en documentos anteriores al campo; devuelve cuántos se actualizaron
+  Mono<Long> backfillSearchKeys(int batchSize);
+
+  // Cursor sin orden (orden natural) con el batch size indicado, para exportaciones completas
+  Flux<Customer> streamAll(String type, String segment, int batchSize);
+
+  // insertMany no ordenado: asigna el id a cada Customer insertado y devuelve solo los fallidos
+  Mono<List<BulkInsertFailure>> insertUnordered(List<Customer> customers);
+}
@@ -0,0 +1,259 @@
+package com.nttdata.repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.result.UpdateResult;
+import com.nttdata.domain.Customer;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+public class CustomerRepositoryCustomImpl implements CustomerRepositoryCustom {
+
+  private static final int DUPLICATE_KEY = 11000;
+
+  private final ReactiveMongoTemplate template;
+
+  @Override
+  public Flux<Customer> findPage(CustomerListQuery q) {
+    List<Criteria> parts = new ArrayList<>();
+    if (q.getType() != null) {
+      parts.add(Criteria.where("type").is(q.getType()));
+    }
+    if (q.getSegment() != null) {
+      parts.add(Criteria.where("segment").is(q.getSegment()));
+    }
+    if (q.getAfterId() != null) {
+      parts.add(keyset(q.getProperty(), q.getDirection(), q.getAfterValue(), toObjectId(q.getAfterId())));
+    }
+
+    Query query = parts.isEmpty()
+            ? new Query()
+            : new Query(new Criteria().andOperator(parts.toArray(new Criteria[0])));
+    query.with(Sort.by(q.getDirection(), q.getProperty(), "id")).limit(q.getLimit());
+    if (q.getAfterId() == null && q.getSkip() > 0) {
+      query.skip(q.getSkip());
+    }
+    if (q.getFields() != null && !q.getFields().isEmpty()) {
+      q.getFields().forEach(query.fields()::include);
+    }
+    return template.find(query, Customer.class);
+  }
+
+  @Override
+  public Mono<Long> countCustomers(String type, String segment) {
+    if (type == null && segment == null) {
+      return template.estimatedCount(Customer.class);
+    }
+    Query query = new Query();
+    if (type != null) {
+      query.addCriteria(Criteria.where("type").is(type));
+    }
+    if (segment != null) {
+      query.addCriteria(Criteria.where("segment").is(segment));
+    }
+    // Prefijo de los ix_list_*: el conteo se resuelve recorriendo solo el índice
+    return template.count(query, Customer.class);
+  }
+
+  @Override
+  public Flux<Customer> findActiveByDocuments(Map<String, ? extends Collection<String>> numbersByType) {
+    if (numbersByType.isEmpty()) {
+      return Flux.empty();
+    }
+    return template.find(activeByDocuments(numbersByType), Customer.class);
+  }
+
+  @Override
+  public Flux<Customer> findEligibilityByDocuments(Map<String, ? extends Collection<String>> numbersByType) {
+    if (numbersByType.isEmpty()) {
+      return Flux.empty();
+    }
+    Query query = activeByDocuments(numbersByType);
+    query.fields().include("type", "segment", "documentType", "documentNumber");
+    return template.find(query, Customer.class);
+  }
+
+  private static Query activeByDocuments(Map<String, ? extends Collection<String>> numbersByType) {
+    Criteria[] byType = numbersByType.entrySet().stream()
+            .map(e -> Criteria.where("documentType").is(e.getKey()).and("documentNumber").in(e.getValue()))
+            .toArray(Criteria[]::new);
+    return new Query(Criteria.where("active").is(true).orOperator(byType));
+  }
+
+  @Override
+  public Flux<Customer> searchByPrefix(String normalizedPrefix, int limit) {
+    // ^ + literal escapado y sin flags: Mongo acota el recorrido de ix_search_keys al rango del prefijo
+    Query query = new Query(Criteria.where("searchKeys").regex("^" + escapeRegex(normalizedPrefix)))
+            .limit(limit);
+    return template.find(query, Customer.class);
+  }
+
+  static String escapeRegex(String literal) {
+    StringBuilder sb = new StringBuilder(literal.length() + 8);
+    for (int i = 0; i < literal.length(); i++) {
+      char ch = literal.charAt(i);
+      if ("\\^$.|?*+()[]{}".indexOf(ch) >= 0) {
+        sb.append('\\');
+      }
+      sb.append(ch);
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public Mono<Long> backfillSearchKeys(int batchSize) {
+    Query query = new Query(Criteria.where("searchKeys").exists(false));
+    query.fields().include("displayName", "email", "documentNumber");
+    query.cursorBatchSize(batchSize);
+    // $set directo por _id: no toca version, así no provoca 412 a clientes con un ETag vigente
+    return template.find(query, Customer.class)
+            .flatMap(c -> {
+              c.refreshSearchKeys();
+              if (c.getSearchKeys() == null) {
+                return Mono.just(0L);
+              }
+              return template.updateFirst(new Query(Criteria.where("id").is(c.getId())),
+                      new Update().set("searchKeys", c.getSearchKeys()), Customer.class)
+                      .map(UpdateResult::getModifiedCount);
+            }, 16)
+            .reduce(0L, Long::sum);
+  }
+
+  @Override
+  public Flux<Customer> streamAll(String type, String segment, int batchSize) {
+    Query query = new Query();
+    if (type != null) {
+      query.addCriteria(Criteria.where("type").is(type));
+    }
+    if (segment != null) {
+      query.addCriteria(Criteria.where("segment").is(segment));
+    }
+    // Sin sort a propósito: un orden sin índice que lo cubra obligaría a ordenar en memoria toda la colección
+    query.cursorBatchSize(batchSize);
+    return template.find(query, Customer.class);
+  }
+
+  @Override
+  public Mono<Customer> softDelete(String id, Instant deletedAt) {
+    // active null se considera activo, igual que el borrado previo basado en findById
+    Query query = new Query(Criteria.where("id").is(id).and("active").ne(false));
+    Update update = new Update()
+            .set("active", false)
+            .set("deletedAt", deletedAt)
+            .inc("version", 1);
+    return template.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Customer.class);
+  }
+
+  @Override
+  public Mono<Customer> updateFields(String id, Set<Long> expectedVersions, Customer c) {
+    Criteria criteria = Criteria.where("id").is(id);
+    if (expectedVersions != null) {
+      List<Long> versions = new ArrayList<>(expectedVersions);
+      // Sin el campo version el ETag es "0": $in con null también encuentra esos documentos, y $inc lo deja en 1
+      if (expectedVersions.contains(0L)) {
+        versions.add(null);
+      }
+      criteria = criteria.and("version").in(versions);
+    }
+    Update update = new Update().inc("version", 1);
+    setOrUnset(update, "type", c.getType());
+    setOrUnset(update, "segment", c.getSegment());
+    setOrUnset(update, "firstName", c.getFirstName());
+    setOrUnset(update, "lastName", c.getLastName());
+    setOrUnset(update, "businessName", c.getBusinessName());
+    setOrUnset(update, "email", c.getEmail());
+    setOrUnset(update, "documentType", c.getDocumentType());
+    setOrUnset(update, "documentNumber", c.getDocumentNumber());
+    setOrUnset(update, "phone", c.getPhone());
+    setOrUnset(update, "addressLine1", c.getAddressLine1());
+    setOrUnset(update, "addressCity", c.getAddressCity());
+    setOrUnset(update, "addressDistrict", c.getAddressDistrict());
+    setOrUnset(update, "addressCountry", c.getAddressCountry());
+    setOrUnset(update, "active", c.getActive());
+    setOrUnset(update, "displayName", c.getDisplayName());
+    setOrUnset(update, "searchKeys", c.getSearchKeys());
+    return template.findAndModify(new Query(criteria), update,
+            FindAndModifyOptions.options().returnNew(false), Customer.class);
+  }
+
+  @Override
+  public Mono<List<BulkInsertFailure>> insertUnordered(List<Customer> customers) {
+    if (customers.isEmpty()) {
+      return Mono.just(List.of());
+    }
+    List<Document> docs = new ArrayList<>(customers.size());
+    for (Customer c : customers) {
+      if (c.getVersion() == null) {
+        c.setVersion(0L); // lo que haría insert() con @Version
+      }
+      Document doc = new Document();
+      template.getConverter().write(c, doc);
+      docs.add(doc);
+    }
+    return template.getCollection(template.getCollectionName(Customer.class))
+            .flatMap(col -> Mono.from(col.insertMany(docs, new InsertManyOptions().ordered(false))))
+            .map(result -> List.<BulkInsertFailure>of())
+            .onErrorResume(MongoBulkWriteException.class, ex -> Mono.just(ex.getWriteErrors().stream()
+                    .map(e -> new BulkInsertFailure(e.getIndex(), e.getCode() == DUPLICATE_KEY, e.getMessage()))
+                    .collect(Collectors.toList())))
+            .doOnNext(failures -> {
+              // El driver agrega _id a cada documento antes de enviarlo
+              for (int i = 0; i < docs.size(); i++) {
+                Object id = docs.get(i).get("_id");
+                customers.get(i).setId(id instanceof ObjectId ? ((ObjectId) id).toHexString() : String.valueOf(id));
+              }
+            });
+  }
+
+  // Igual que un save completo: los null no se guardan
+  private static void setOrUnset(Update update, String key, Object value) {
+    if (value == null) {
+      update.unset(key);
+    } else {
+      update.set(key, value);
+    }
+  }
+
+  // (prop, _id) > (value, id) respetando que Mongo ordena null/ausente antes que cualquier valor
+  static Criteria keyset(String prop, Sort.Direction dir, Object value, Object id) {
+    if (dir == Sort.Direction.ASC) {
+      if (value == null) {
+        return new Criteria().orOperator(
+                Criteria.where(prop).is(null).and("id").gt(id),
+                Criteria.where(prop).ne(null));
+      }
+      return new Criteria().orOperator(
+              Criteria.where(prop).gt(value),
+              Criteria.where(prop).is(value).and("id").gt(id));
+    }
+    if (value == null) {
+      return Criteria.where(prop).is(null).and("id").lt(id);
+    }
+    return new Criteria().orOperator(
+            Criteria.where(prop).lt(value),
+            Criteria.where(prop).is(value).and("id").lt(id),
+            Criteria.where(prop).is(null));
+  }
+
+  private static Object toObjectId(String id) {
+    return id != null && ObjectId.isValid(id) ? new ObjectId(id) : id;
+  }
+}
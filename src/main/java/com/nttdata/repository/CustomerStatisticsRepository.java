@@ -0,0 +1,76 @@
+package com.nttdata.repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import com.nttdata.domain.Customer;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.*;
+
+@Repository
+@RequiredArgsConstructor
+public class CustomerStatisticsRepository {
+
+  static final String SUMMARY_COLLECTION = "customer_statistics";
+  private static final String SUMMARY_ID = "global";
+  private static final String LEASE_ID = "refresh-lease";
+
+  private final ReactiveMongoTemplate template;
+
+  // Un solo recorrido de la colección: cada faceta agrupa el mismo flujo de documentos
+  public Mono<Document> computeFacets() {
+    Aggregation aggregation = newAggregation(
+            project("type", "segment", "active", "addressCountry")
+                    .and(DateOperators.dateOf("createdAt").toString("%Y-%m")).as("month"),
+            facet(count().as("total")).as("total")
+                    .and(group("type").count().as("count"), sort(Sort.Direction.DESC, "count")).as("byType")
+                    .and(group("segment").count().as("count"), sort(Sort.Direction.DESC, "count")).as("bySegment")
+                    .and(group("active").count().as("count"), sort(Sort.Direction.DESC, "count")).as("byActive")
+                    .and(group("addressCountry").count().as("count"), sort(Sort.Direction.DESC, "count"))
+                    .as("byCountry")
+                    .and(match(Criteria.where("month").ne(null)), group("month").count().as("count"),
+                            sort(Sort.Direction.ASC, "_id"))
+                    .as("createdByMonth"));
+    return template.aggregate(aggregation, template.getCollectionName(Customer.class), Document.class).next();
+  }
+
+  public Mono<Document> findSummary() {
+    return template.findById(SUMMARY_ID, Document.class, SUMMARY_COLLECTION);
+  }
+
+  public Mono<Document> saveSummary(Document facets, Instant generatedAt) {
+    Document summary = new Document("_id", SUMMARY_ID)
+            .append("facets", facets)
+            .append("generatedAt", Date.from(generatedAt));
+    return template.findAndReplace(Query.query(Criteria.where("_id").is(SUMMARY_ID)), summary,
+            FindAndReplaceOptions.options().upsert().returnNew(), Document.class, SUMMARY_COLLECTION);
+  }
+
+  // Lease del refresco periódico: lo obtiene quien lo encuentra vencido o ya lo tenía. Si dos instancias
+  // hacen el upsert a la vez, el _id único hace fallar a una de ellas, que queda sin lease
+  public Mono<Boolean> tryAcquireRefreshLease(String owner, Instant now, Duration ttl) {
+    Query query = Query.query(Criteria.where("_id").is(LEASE_ID)
+            .orOperator(Criteria.where("until").lte(Date.from(now)), Criteria.where("owner").is(owner)));
+    Update update = new Update().set("owner", owner).set("until", Date.from(now.plus(ttl)));
+    return template.findAndModify(query, update, FindAndModifyOptions.options().upsert(true).returnNew(true),
+                    Document.class, SUMMARY_COLLECTION)
+            .map(lease -> owner.equals(lease.getString("owner")))
+            .defaultIfEmpty(false)
+            .onErrorResume(DuplicateKeyException.class, ex -> Mono.just(false));
+  }
+}
@@ -0,0 +1,122 @@
+package com.nttdata.repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+// Acumula claves durante una ventana corta (o hasta maxKeys) y las resuelve con una sola consulta;
+// cada Mono en espera recibe su documento o vacío si la consulta no lo devolvió. Si devolvió más de uno
+// para la misma clave, sus Mono fallan con IncorrectResultSizeDataAccessException, como el finder Mono
+// sin batching; las demás claves del lote no se ven afectadas.
+// Solo se agrupan claves de lotes aún no despachados: una clave que llega después va al lote siguiente
+final class KeyBatcher<K, V> {
+
+  private final Duration window;
+  private final int maxKeys;
+  private final Function<Set<K>, Flux<V>> fetch;
+  private final Function<V, K> keyOf;
+  // Forma canónica con la que se agrupa y se cruza el resultado (p. ej. ObjectId en hex minúsculas)
+  private final Function<K, K> normalize;
+  private final DistributionSummary batchSizes;
+
+  // guardado por this
+  private Map<K, List<MonoSink<V>>> pending = new LinkedHashMap<>();
+  private Disposable timer;
+
+  KeyBatcher(Duration window, int maxKeys, Function<Set<K>, Flux<V>> fetch, Function<V, K> keyOf,
+             Function<K, K> normalize, DistributionSummary batchSizes) {
+    this.window = window;
+    this.maxKeys = Math.max(1, maxKeys);
+    this.fetch = fetch;
+    this.keyOf = keyOf;
+    this.normalize = normalize;
+    this.batchSizes = batchSizes;
+  }
+
+  Mono<V> load(K key) {
+    return Mono.create(sink -> enqueue(normalize.apply(key), sink));
+  }
+
+  private void enqueue(K key, MonoSink<V> sink) {
+    Map<K, List<MonoSink<V>>> full = null;
+    synchronized (this) {
+      pending.computeIfAbsent(key, k -> new ArrayList<>(1)).add(sink);
+      sink.onCancel(() -> cancel(key, sink));
+      if (pending.size() >= maxKeys) {
+        full = takePending();
+      } else if (timer == null) {
+        timer = Schedulers.parallel().schedule(this::flushWindow, window.toNanos(), TimeUnit.NANOSECONDS);
+      }
+    }
+    if (full != null) {
+      dispatch(full);
+    }
+  }
+
+  // Un suscriptor cancelado antes del despacho no debe inflar el lote ni mantener su clave en el $in
+  private synchronized void cancel(K key, MonoSink<V> sink) {
+    List<MonoSink<V>> sinks = pending.get(key);
+    if (sinks == null || !sinks.remove(sink)) {
+      return;
+    }
+    if (sinks.isEmpty()) {
+      pending.remove(key);
+    }
+    if (pending.isEmpty() && timer != null) {
+      timer.dispose();
+      timer = null;
+    }
+  }
+
+  private void flushWindow() {
+    Map<K, List<MonoSink<V>>> batch;
+    synchronized (this) {
+      batch = takePending();
+    }
+    if (!batch.isEmpty()) {
+      dispatch(batch);
+    }
+  }
+
+  private Map<K, List<MonoSink<V>>> takePending() {
+    Map<K, List<MonoSink<V>>> batch = pending;
+    pending = new LinkedHashMap<>();
+    if (timer != null) {
+      timer.dispose();
+      timer = null;
+    }
+    return batch;
+  }
+
+  private void dispatch(Map<K, List<MonoSink<V>>> batch) {
+    batchSizes.record(batch.size());
+    Mono.defer(() -> fetch.apply(batch.keySet()).collectMultimap(v -> normalize.apply(keyOf.apply(v))))
+            .subscribe(found -> batch.forEach((key, sinks) -> {
+                      Collection<V> values = found.get(key);
+                      for (MonoSink<V> sink : sinks) {
+                        if (values == null) {
+                          sink.success();
+                        } else if (values.size() == 1) {
+                          sink.success(values.iterator().next());
+                        } else {
+                          sink.error(new IncorrectResultSizeDataAccessException(1, values.size()));
+                        }
+                      }
+                    }),
+                    ex -> batch.values().forEach(sinks -> sinks.forEach(sink -> sink.error(ex))));
+  }
+}
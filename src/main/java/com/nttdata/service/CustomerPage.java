@@ -0,0 +1,20 @@
+package com.nttdata.service;
+
+import java.util.List;
+
+import com.nttdata.model.CustomerResponse;
+import lombok.Value;
+import lombok.With;
+
+@Value
+public class CustomerPage {
+
+  List<CustomerResponse> items;
+
+  // null cuando no hay más resultados
+  String nextCursor;
+
+  // Solo si se pidió includeTotal; puede venir de una caché de pocos segundos
+  @With
+  Long total;
+}
@@ -2,20 +2,33 @@ package com.nttdata.service;
 
 
 import com.nttdata.model.*;
+import java.util.List;
+import java.util.Set;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface CustomerService {
 
-  Flux<CustomerResponse> list(CustomerType type,
-                              CustomerSegment segment,
-                              Integer page,
-                              Integer size,
-                              String sort,
-                              String direction);  Mono<CustomerResponse> create(CustomerCreateRequest request);
+  Mono<CustomerPage> list(CustomerType type,
+                          CustomerSegment segment,
+                          Integer page,
+                          Integer size,
+                          String sort,
+                          String direction,
+                          String cursor,
+                          String fields,
+                          Boolean includeTotal);
+  Mono<CustomerResponse> create(CustomerCreateRequest request);
   Mono<CustomerResponse> getById(String id);
-  Mono<CustomerResponse> update(String id, CustomerUpdateRequest request);
+  // expectedVersions null = sin control de concurrencia (If-Match ausente o *); vacío = ninguna coincide (412)
+  Mono<CustomerResponse> update(String id, CustomerUpdateRequest request, Set<Long> expectedVersions);
   Mono<Void> delete(String id);
   Mono<EligibilityResponse> getEligibility(DocumentType documentType, String documentNumber);
+  Mono<EligibilityBatchResponse> getEligibilityBatch(List<DocumentKey> documents);
   Mono<CustomerResponse> getByDocumentNumber(String documentNumber);
+  Flux<CustomerResponse> search(String q, Integer limit);
+  Mono<CustomerBatchResponse> getByIds(List<String> ids);
+  Mono<CustomerBatchResponse> getByDocuments(List<DocumentKey> documents);
+  Flux<BulkCreateResult> bulkCreate(Flux<CustomerCreateRequest> records);
+  Flux<CustomerResponse> export(CustomerType type, CustomerSegment segment);
 }
@@ -0,0 +1,12 @@
+package com.nttdata.service;
+
+import com.nttdata.model.CustomerStatistics;
+import reactor.core.publisher.Mono;
+
+public interface CustomerStatisticsService {
+
+  Mono<CustomerStatistics> getStatistics();
+
+  // Recalcula y guarda el resumen materializado
+  Mono<CustomerStatistics> refresh();
+}
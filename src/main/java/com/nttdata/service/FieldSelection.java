@@ -0,0 +1,53 @@
+package com.nttdata.service;
+
+import com.nttdata.service.errors.UnprocessableException;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Traduce el parámetro fields (propiedades de CustomerResponse separadas por coma) a campos del documento
+public class FieldSelection {
+    private FieldSelection() {}
+
+    private static final Map<String, List<String>> DOCUMENT_FIELDS = Map.ofEntries(
+            Map.entry("id", List.of("id")),
+            Map.entry("createdAt", List.of("createdAt")),
+            Map.entry("deletedAt", List.of("deletedAt")),
+            Map.entry("displayName", List.of("displayName")),
+            Map.entry("type", List.of("type")),
+            Map.entry("segment", List.of("segment")),
+            Map.entry("firstName", List.of("firstName")),
+            Map.entry("lastName", List.of("lastName")),
+            Map.entry("businessName", List.of("businessName")),
+            Map.entry("email", List.of("email")),
+            Map.entry("documentType", List.of("documentType")),
+            Map.entry("documentNumber", List.of("documentNumber")),
+            Map.entry("phone", List.of("phone")),
+            Map.entry("address", List.of("addressLine1", "addressCity", "addressDistrict", "addressCountry")),
+            Map.entry("active", List.of("active")),
+            Map.entry("version", List.of("version")));
+
+    // null = documento completo. id y el campo de orden van siempre: los necesita el cursor de la página siguiente
+    public static Set<String> parse(String fields, String sortProperty) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> result = new LinkedHashSet<>();
+        result.add("id");
+        result.add(sortProperty);
+        for (String raw : fields.split(",")) {
+            String name = raw.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            List<String> mapped = DOCUMENT_FIELDS.get(name);
+            if (mapped == null) {
+                throw new UnprocessableException("fields contiene un campo desconocido: " + name);
+            }
+            result.addAll(mapped);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,106 @@
+package com.nttdata.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+import com.nttdata.domain.Customer;
+import com.nttdata.service.errors.UnprocessableException;
+
+/**
+ * Cursor opaco para paginación keyset: campo y dirección de orden, último valor visto y su _id.
+ */
+public final class PageCursor {
+
+  private static final String VERSION = "v1";
+  private static final String SEP = "|";
+  private static final String NULL_VALUE = "-";
+  private static final String VALUE_PREFIX = "=";
+
+  private final SortingUtil.Spec spec;
+  private final Object value;
+  private final String id;
+
+  private PageCursor(SortingUtil.Spec spec, Object value, String id) {
+    this.spec = spec;
+    this.value = value;
+    this.id = id;
+  }
+
+  public static PageCursor after(SortingUtil.Spec spec, Customer last) {
+    return new PageCursor(spec, sortValue(spec.property, last), last.getId());
+  }
+
+  public SortingUtil.Spec getSpec() {
+    return spec;
+  }
+
+  public Object getValue() {
+    return value;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String encode() {
+    String raw = String.join(SEP, VERSION, spec.property, spec.direction.name(), id, encodeValue(value));
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static PageCursor decode(String token) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      String[] parts = raw.split("\\|", 5);
+      if (parts.length != 5 || !VERSION.equals(parts[0]) || parts[3].isEmpty()) {
+        throw invalid();
+      }
+      SortingUtil.Spec spec = SortingUtil.parse(parts[1], parts[2]);
+      if (!spec.property.equals(parts[1]) || !spec.direction.name().equals(parts[2])) {
+        throw invalid();
+      }
+      return new PageCursor(spec, decodeValue(spec.property, parts[4]), parts[3]);
+    } catch (IllegalArgumentException | DateTimeException ex) {
+      throw invalid();
+    }
+  }
+
+  private static Object sortValue(String property, Customer c) {
+    switch (property) {
+      case "firstName":
+        return c.getFirstName();
+      case "lastName":
+        return c.getLastName();
+      case "businessName":
+        return c.getBusinessName();
+      default:
+        return c.getCreatedAt();
+    }
+  }
+
+  private static String encodeValue(Object v) {
+    if (v == null) {
+      return NULL_VALUE;
+    }
+    if (v instanceof Instant) {
+      return VALUE_PREFIX + ((Instant) v).toEpochMilli();
+    }
+    return VALUE_PREFIX + v;
+  }
+
+  private static Object decodeValue(String property, String encoded) {
+    if (NULL_VALUE.equals(encoded)) {
+      return null;
+    }
+    if (!encoded.startsWith(VALUE_PREFIX)) {
+      throw invalid();
+    }
+    String v = encoded.substring(VALUE_PREFIX.length());
+    return "createdAt".equals(property) ? Instant.ofEpochMilli(Long.parseLong(v)) : v;
+  }
+
+  private static UnprocessableException invalid() {
+    return new UnprocessableException("cursor inválido");
+  }
+}
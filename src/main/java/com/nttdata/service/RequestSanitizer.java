@@ -1,82 +1,99 @@
 package com.nttdata.service;
 
 import com.nttdata.model.Address;
-import com.nttdata.model.CustomerCreateRequest;
-import com.nttdata.model.CustomerUpdateRequest;
 import org.springframework.stereotype.Component;
 
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.Locale;
 
 
 @Component
 public class RequestSanitizer {
 
-    private static final Pattern SPACES = Pattern.compile("\\s+");
+    public void sanitize(SanitizableRequest r) {
+        if (r == null) return;
 
-    private static String titleCase(String in){
-        if(in == null) return null;
-        return SPACES.splitAsStream(in.trim().toLowerCase())
-                .filter(t -> !t.isEmpty())
-                .map(t -> Character.toUpperCase(t.charAt(0)) + t.substring(1))
-                .collect(Collectors.joining(" "));
+        r.setFirstName(titleCase(r.getFirstName()));
+        r.setLastName(titleCase(r.getLastName()));
+        r.setBusinessName(normalizeSpaces(r.getBusinessName()));
+        r.setDocumentNumber(trim(r.getDocumentNumber()));
+        r.setPhone(trim(r.getPhone()));
+        r.setEmail(email(r.getEmail()));
+        sanitize(r.getAddress());
     }
 
-    private static String normalizeSpaces(String in) {
-        if (in == null) return null;
-        return SPACES.splitAsStream(in.trim())
-                .filter(t -> !t.isEmpty())
-                .collect(Collectors.joining(" "));
+    private static void sanitize(Address a) {
+        if (a == null) return;
+
+        a.setLine1(normalizeSpaces(a.getLine1()));
+        a.setCity(titleCase(a.getCity()));
+        a.setDistrict(titleCase(a.getDistrict()));
+        a.setCountry(titleCase(a.getCountry()));
     }
 
-    public void sanitize(CustomerCreateRequest r) {
-        if (r == null) return;
+    // Los normalizadores devuelven la misma instancia si el valor ya está normalizado:
+    // String.trim/toLowerCase ya lo hacen y collapse solo crea un StringBuilder al primer cambio
 
-        r.setFirstName(titleCase(r.getFirstName()));
-        r.setLastName(titleCase(r.getLastName()));
-        r.setBusinessName(normalizeSpaces(r.getBusinessName()));
-        if (r.getDocumentNumber() != null){
-            r.setDocumentNumber(r.getDocumentNumber().trim());
-        }
-        if (r.getPhone() != null){
-            r.setPhone(r.getPhone().trim());
-        }
-        if(r.getEmail() != null){
-            r.setEmail(r.getEmail().trim().toLowerCase());
-        }
+    private static String trim(String in) {
+        return in == null ? null : in.trim();
+    }
 
-        Address a = r.getAddress();
-        if(a != null){
-            a.setLine1(normalizeSpaces(a.getLine1()));
-            a.setCity(titleCase(a.getCity()));
-            a.setDistrict(titleCase(a.getDistrict()));
-            a.setCountry(titleCase(a.getCountry()));
-        }
+    private static String email(String in) {
+        return in == null ? null : in.trim().toLowerCase(Locale.ROOT);
     }
 
-    public void sanitize(CustomerUpdateRequest r) {
-        if (r == null) return;
+    private static String titleCase(String in) {
+        return collapse(in, true);
+    }
 
-        r.setFirstName(titleCase(r.getFirstName()));
-        r.setLastName(titleCase(r.getLastName()));
-        r.setBusinessName(normalizeSpaces(r.getBusinessName()));
+    private static String normalizeSpaces(String in) {
+        return collapse(in, false);
+    }
 
-        if (r.getDocumentNumber() != null) {
-            r.setDocumentNumber(r.getDocumentNumber().trim());
-        }
-        if (r.getPhone() != null) {
-            r.setPhone(r.getPhone().trim());
-        }
-        if (r.getEmail() != null) {
-            r.setEmail(r.getEmail().trim().toLowerCase());
-        }
+    // Una pasada: recorta, colapsa espacios en uno solo y, con title, deja mayúscula solo la primera
+    // letra de cada palabra. Character.toUpperCase/toLowerCase no dependen del locale por defecto
+    private static String collapse(String in, boolean title) {
+        if (in == null) return null;
 
-        Address a = r.getAddress();
-        if (a != null) {
-            a.setLine1(normalizeSpaces(a.getLine1()));
-            a.setCity(titleCase(a.getCity()));
-            a.setDistrict(titleCase(a.getDistrict()));
-            a.setCountry(titleCase(a.getCountry()));
+        int len = in.length();
+        StringBuilder out = null;
+        // Mientras out == null, la salida coincide con in[0, outLen)
+        int outLen = 0;
+        boolean inWord = false;
+        boolean pendingSpace = false;
+        for (int i = 0; i < len; i++) {
+            char c = in.charAt(i);
+            if (isSpace(c)) {
+                pendingSpace = outLen > 0;
+                inWord = false;
+                continue;
+            }
+            char mapped = !title ? c : inWord ? Character.toLowerCase(c) : Character.toUpperCase(c);
+            inWord = true;
+            if (out == null) {
+                boolean same = mapped == c && (pendingSpace
+                        ? i == outLen + 1 && in.charAt(outLen) == ' '
+                        : i == outLen);
+                if (same) {
+                    outLen = i + 1;
+                    pendingSpace = false;
+                    continue;
+                }
+                out = new StringBuilder(len).append(in, 0, outLen);
+            }
+            if (pendingSpace) {
+                out.append(' ');
+                pendingSpace = false;
+            }
+            out.append(mapped);
+            outLen = out.length();
         }
+        if (out != null) return out.toString();
+        if (outLen == len) return in;
+        return outLen == 0 ? "" : in.substring(0, outLen);
+    }
+
+    // Mismo conjunto que \s en java.util.regex
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
     }
 }
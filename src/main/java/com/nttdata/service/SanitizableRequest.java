@@ -0,0 +1,28 @@
+package com.nttdata.service;
+
+import com.nttdata.model.Address;
+
+// Campos de texto comunes al alta y al PUT. Los modelos generados lo implementan vía x-implements en
+// openapi.yml, así RequestSanitizer normaliza ambos con el mismo código
+public interface SanitizableRequest {
+
+  String getFirstName();
+  void setFirstName(String firstName);
+
+  String getLastName();
+  void setLastName(String lastName);
+
+  String getBusinessName();
+  void setBusinessName(String businessName);
+
+  String getDocumentNumber();
+  void setDocumentNumber(String documentNumber);
+
+  String getPhone();
+  void setPhone(String phone);
+
+  String getEmail();
+  void setEmail(String email);
+
+  Address getAddress();
+}
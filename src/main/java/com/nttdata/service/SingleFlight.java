@@ -0,0 +1,33 @@
+package com.nttdata.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import reactor.core.publisher.Mono;
+
+// Comparte una sola carga en curso entre los llamadores concurrentes con la misma clave.
+// La entrada se retira al terminar la carga (antes de emitir), así que nunca se reutiliza un resultado ya entregado
+public final class SingleFlight<K, V> {
+
+  private final ConcurrentMap<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+
+  public Mono<V> execute(K key, Supplier<Mono<V>> loader) {
+    return Mono.defer(() -> inFlight.computeIfAbsent(key, k -> share(k, loader)));
+  }
+
+  public int inFlight() {
+    return inFlight.size();
+  }
+
+  private Mono<V> share(K key, Supplier<Mono<V>> loader) {
+    AtomicReference<Mono<V>> self = new AtomicReference<>();
+    // cache(): un solo subscribe al loader aunque el primer llamador cancele
+    Mono<V> shared = Mono.defer(loader)
+            .doOnTerminate(() -> inFlight.remove(key, self.get()))
+            .cache();
+    self.set(shared);
+    return shared;
+  }
+}
@@ -19,6 +19,10 @@ public class SortingUtil {
         }
     }
 
+    public static Set<String> allowedProperties() {
+        return ALLOWED;
+    }
+
     public static Spec parse(String sort, String direction){
         String prop = (sort != null && ALLOWED.contains(sort)) ? sort : "createdAt";
         Sort.Direction dir = "desc".equalsIgnoreCase(direction) ? Sort.Direction.DESC : Sort.Direction.ASC;
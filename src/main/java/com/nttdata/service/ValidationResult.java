@@ -0,0 +1,43 @@
+package com.nttdata.service;
+
+import com.nttdata.service.errors.ValidationException;
+
+import java.util.List;
+
+// Resultado de validar una solicitud sin lanzar: el alta masiva lo convierte en un 422 por registro
+public final class ValidationResult {
+
+  private static final ValidationResult VALID = new ValidationResult(List.of());
+
+  private final List<String> errors;
+
+  private ValidationResult(List<String> errors) {
+    this.errors = errors;
+  }
+
+  public static ValidationResult valid() {
+    return VALID;
+  }
+
+  public static ValidationResult of(List<String> errors) {
+    return errors == null || errors.isEmpty() ? VALID : new ValidationResult(List.copyOf(errors));
+  }
+
+  public boolean isValid() {
+    return errors.isEmpty();
+  }
+
+  public List<String> getErrors() {
+    return errors;
+  }
+
+  public String message() {
+    return String.join("; ", errors);
+  }
+
+  public void orThrow() {
+    if (!isValid()) {
+      throw new ValidationException(errors);
+    }
+  }
+}
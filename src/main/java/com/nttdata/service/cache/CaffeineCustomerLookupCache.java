@@ -0,0 +1,138 @@
+package com.nttdata.service.cache;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.nttdata.config.CustomersProperties;
+import com.nttdata.model.CustomerResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+// Caffeine (W-TinyLFU) acotada por tamaño; Optional.empty() es la entrada negativa, con su propio TTL
+@Component
+@ConditionalOnProperty(prefix = "customers.cache.lookup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CaffeineCustomerLookupCache implements CustomerLookupCache, MeterBinder {
+
+  private static final String BY_ID = "id:";
+  private static final String BY_DOCUMENT = "doc:";
+
+  private final Cache<String, Optional<CustomerResponse>> cache;
+  // id -> documentNumber de las entradas por documento, para invalidar ambas con solo el id
+  private final Map<String, String> documentById = new ConcurrentHashMap<>();
+  private final AtomicLong generation = new AtomicLong();
+
+  public CaffeineCustomerLookupCache(CustomersProperties properties) {
+    CustomersProperties.Lookup cfg = properties.getCache().getLookup();
+    long ttl = cfg.getTtl().toNanos();
+    long negativeTtl = cfg.getNegativeTtl().toNanos();
+    this.cache = Caffeine.newBuilder()
+            .maximumSize(cfg.getMaxSize())
+            .expireAfter(new Expiry<String, Optional<CustomerResponse>>() {
+              @Override
+              public long expireAfterCreate(String key, Optional<CustomerResponse> value, long currentTime) {
+                return value.isPresent() ? ttl : negativeTtl;
+              }
+
+              @Override
+              public long expireAfterUpdate(String key, Optional<CustomerResponse> value,
+                                            long currentTime, long currentDuration) {
+                return value.isPresent() ? ttl : negativeTtl;
+              }
+
+              @Override
+              public long expireAfterRead(String key, Optional<CustomerResponse> value,
+                                          long currentTime, long currentDuration) {
+                return currentDuration;
+              }
+            })
+            .recordStats()
+            .<String, Optional<CustomerResponse>>removalListener((key, value, cause) -> {
+              if (key != null && key.startsWith(BY_DOCUMENT) && value != null && value.isPresent()
+                      && cause != RemovalCause.REPLACED) {
+                documentById.remove(value.get().getId(), key.substring(BY_DOCUMENT.length()));
+              }
+            })
+            .build();
+  }
+
+  @Override
+  public Mono<CustomerResponse> getById(String id, Mono<CustomerResponse> loader) {
+    return get(BY_ID + id, loader);
+  }
+
+  @Override
+  public Mono<CustomerResponse> getByDocumentNumber(String documentNumber, Mono<CustomerResponse> loader) {
+    return get(BY_DOCUMENT + documentNumber, loader);
+  }
+
+  private Mono<CustomerResponse> get(String key, Mono<CustomerResponse> loader) {
+    return Mono.defer(() -> {
+      Optional<CustomerResponse> cached = cache.getIfPresent(key);
+      if (cached != null) {
+        return Mono.justOrEmpty(cached);
+      }
+      long loadedAt = generation.get();
+      return loader.map(Optional::of)
+              .defaultIfEmpty(Optional.empty())
+              .doOnNext(value -> put(key, value, loadedAt))
+              .flatMap(Mono::justOrEmpty);
+    });
+  }
+
+  // Si una escritura invalidó mientras se cargaba, lo leído puede ser anterior a ella: no se guarda y se
+  // conserva lo que haya (quizá una carga posterior). compute bloquea la clave, así que una invalidación
+  // que llegue después de comparar la generación se aplica sobre lo guardado
+  private void put(String key, Optional<CustomerResponse> value, long loadedAt) {
+    cache.asMap().compute(key, (k, current) -> {
+      if (generation.get() != loadedAt) {
+        return current;
+      }
+      if (k.startsWith(BY_DOCUMENT) && value.isPresent() && value.get().getId() != null) {
+        documentById.put(value.get().getId(), k.substring(BY_DOCUMENT.length()));
+      }
+      return value;
+    });
+  }
+
+  @Override
+  public void evictCustomer(String id) {
+    generation.incrementAndGet();
+    cache.invalidate(BY_ID + id);
+    String documentNumber = documentById.remove(id);
+    if (documentNumber != null) {
+      cache.invalidate(BY_DOCUMENT + documentNumber);
+    }
+  }
+
+  @Override
+  public void evictDocument(String documentNumber) {
+    generation.incrementAndGet();
+    cache.invalidate(BY_DOCUMENT + documentNumber);
+  }
+
+  @Override
+  public void evictAll() {
+    generation.incrementAndGet();
+    cache.invalidateAll();
+  }
+
+  @Override
+  public long generation() {
+    return generation.get();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, cache, "customers.lookup");
+  }
+}
@@ -0,0 +1,162 @@
+package com.nttdata.service.cache;
+
+import java.time.Duration;
+import java.util.Set;
+
+import javax.annotation.PreDestroy;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import com.nttdata.config.CustomersProperties;
+import com.nttdata.domain.Customer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+// Invalida las cachés de customers con los cambios que hagan otras instancias (o un script) sobre la colección
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerChangeStreamListener {
+
+    // Campos que alteran una respuesta de elegibilidad
+    static final Set<String> ELIGIBILITY_FIELDS =
+            Set.of("type", "segment", "active", "documentType", "documentNumber");
+    // El evento no trae el número anterior: si cambió, la entrada por documento vieja es inalcanzable
+    static final Set<String> DOCUMENT_FIELDS = Set.of("documentNumber");
+
+    private final ReactiveMongoTemplate template;
+    private final CustomersProperties properties;
+    private final EligibilityCache eligibilityCache;
+    private final CustomerLookupCache lookupCache;
+
+    private volatile Disposable subscription;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.getCache().getChangeStream().isEnabled()) {
+            log.info("Change stream de customers deshabilitado; las cachés expiran solo por TTL");
+            return;
+        }
+        String collection = template.getCollectionName(Customer.class);
+        subscription = Flux.defer(() -> template.changeStream(collection, ChangeStreamOptions.empty(), Document.class))
+                // Al (re)conectar se pudieron perder eventos: lo cacheado hasta ahora ya no es confiable
+                .doOnSubscribe(s -> invalidateAll())
+                .retryWhen(Retry.backoff(5, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .transientErrors(true))
+                .subscribe(this::onChange,
+                        ex -> log.warn("Change stream de customers no disponible, las cachés expiran solo por TTL: {}",
+                                ex.getMessage()));
+    }
+
+    @PreDestroy
+    public void stop() {
+        Disposable s = subscription;
+        if (s != null) {
+            s.dispose();
+        }
+    }
+
+    void onChange(ChangeStreamEvent<Document> event) {
+        ChangeStreamDocument<Document> raw = event.getRaw();
+        if (raw == null) {
+            return;
+        }
+        OperationType op = raw.getOperationType();
+        switch (op) {
+            case UPDATE:
+                String id = idOf(raw.getDocumentKey());
+                if (id == null) {
+                    return;
+                }
+                // La respuesta completa cambia con cualquier campo; la elegibilidad solo con algunos
+                if (touchesDocumentNumber(raw.getUpdateDescription())) {
+                    lookupCache.evictAll();
+                } else {
+                    lookupCache.evictCustomer(id);
+                }
+                if (touchesEligibility(raw.getUpdateDescription())) {
+                    eligibilityCache.invalidateCustomer(id);
+                }
+                return;
+            case INSERT:
+            case REPLACE:
+            case DELETE:
+                String changedId = idOf(raw.getDocumentKey());
+                if (changedId != null) {
+                    lookupCache.evictCustomer(changedId);
+                    eligibilityCache.invalidateCustomer(changedId);
+                }
+                Document full = raw.getFullDocument();
+                if (full != null) {
+                    lookupCache.evictDocument(full.getString("documentNumber"));
+                    eligibilityCache.invalidate(full.getString("documentType"), full.getString("documentNumber"));
+                }
+                return;
+            default:
+                // drop, rename, invalidate...: no se sabe qué cambió
+                invalidateAll();
+        }
+    }
+
+    private void invalidateAll() {
+        eligibilityCache.invalidateAll();
+        lookupCache.evictAll();
+    }
+
+    public static boolean touchesEligibility(UpdateDescription description) {
+        return touches(description, ELIGIBILITY_FIELDS);
+    }
+
+    public static boolean touchesDocumentNumber(UpdateDescription description) {
+        return touches(description, DOCUMENT_FIELDS);
+    }
+
+    private static boolean touches(UpdateDescription description, Set<String> fields) {
+        if (description == null) {
+            return true;
+        }
+        if (description.getUpdatedFields() != null) {
+            for (String field : description.getUpdatedFields().keySet()) {
+                if (fields.contains(field)) {
+                    return true;
+                }
+            }
+        }
+        if (description.getRemovedFields() != null) {
+            for (String field : description.getRemovedFields()) {
+                if (fields.contains(field)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public static String idOf(BsonDocument documentKey) {
+        if (documentKey == null) {
+            return null;
+        }
+        BsonValue id = documentKey.get("_id");
+        if (id == null) {
+            return null;
+        }
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : null;
+    }
+}
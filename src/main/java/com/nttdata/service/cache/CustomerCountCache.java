@@ -0,0 +1,50 @@
+package com.nttdata.service.cache;
+
+import java.util.function.Supplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nttdata.config.CustomersProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+// Totales del listado por (type, segment) con TTL corto; no se invalida en escrituras, el TTL acota el desfase
+@Component
+public class CustomerCountCache implements MeterBinder {
+
+  private final boolean enabled;
+  private final Cache<String, Long> cache;
+
+  public CustomerCountCache(CustomersProperties properties) {
+    CustomersProperties.Count cfg = properties.getCache().getCount();
+    this.enabled = cfg.isEnabled();
+    // (type, segment): 3 x 4 combinaciones contando el filtro ausente
+    this.cache = Caffeine.newBuilder()
+            .maximumSize(32)
+            .expireAfterWrite(cfg.getTtl())
+            .recordStats()
+            .build();
+  }
+
+  public Mono<Long> get(String type, String segment, Supplier<Mono<Long>> loader) {
+    if (!enabled) {
+      return Mono.defer(loader);
+    }
+    String key = type + "|" + segment;
+    return Mono.defer(() -> {
+      Long cached = cache.getIfPresent(key);
+      if (cached != null) {
+        return Mono.just(cached);
+      }
+      return loader.get().doOnNext(total -> cache.put(key, total));
+    });
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    CaffeineCacheMetrics.monitor(registry, cache, "customers.count");
+  }
+}
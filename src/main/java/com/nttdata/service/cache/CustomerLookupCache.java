@@ -0,0 +1,24 @@
+package com.nttdata.service.cache;
+
+import com.nttdata.model.CustomerResponse;
+import reactor.core.publisher.Mono;
+
+// Caché de lecturas por id y por número de documento. Un loader vacío significa "no existe"
+// y también se cachea (entrada negativa); quien llama decide el error
+public interface CustomerLookupCache {
+
+  Mono<CustomerResponse> getById(String id, Mono<CustomerResponse> loader);
+
+  Mono<CustomerResponse> getByDocumentNumber(String documentNumber, Mono<CustomerResponse> loader);
+
+  // Quita la entrada del id y la del documento con el que se cacheó ese cliente
+  void evictCustomer(String id);
+
+  void evictDocument(String documentNumber);
+
+  void evictAll();
+
+  // Cambia con cada evict; quien comparte cargas en curso lo incluye en la clave para no unirse
+  // a una carga iniciada antes de una escritura
+  long generation();
+}
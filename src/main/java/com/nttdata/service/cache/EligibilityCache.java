@@ -0,0 +1,103 @@
+package com.nttdata.service.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.nttdata.config.CustomersProperties;
+import com.nttdata.model.EligibilityResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+// Caché de elegibilidad por (documentType, documentNumber). Solo guarda respuestas 200:
+// un 404/409 nunca se sirve desde memoria, así un alta nueva se ve de inmediato
+@Component
+public class EligibilityCache implements MeterBinder {
+
+  private final boolean enabled;
+  private final Cache<String, EligibilityResponse> cache;
+  // Los eventos de delete solo traen _id: índice inverso para invalidar por cliente
+  private final Map<String, String> keyById = new ConcurrentHashMap<>();
+  // Cambia en cada invalidación; una carga iniciada antes no debe quedar en la caché
+  private final AtomicLong generation = new AtomicLong();
+
+  public EligibilityCache(CustomersProperties properties) {
+    CustomersProperties.Eligibility cfg = properties.getCache().getEligibility();
+    this.enabled = cfg.isEnabled();
+    this.cache = Caffeine.newBuilder()
+            .maximumSize(cfg.getMaxSize())
+            .expireAfterWrite(cfg.getTtl())
+            .recordStats()
+            .<String, EligibilityResponse>removalListener((key, value, cause) -> {
+              // REPLACED no: put() ya dejó registrado el id de la entrada nueva
+              if (key != null && value != null && value.getCustomerId() != null && cause != RemovalCause.REPLACED) {
+                keyById.remove(value.getCustomerId(), key);
+              }
+            })
+            .build();
+  }
+
+  public Mono<EligibilityResponse> get(String documentType, String documentNumber, Mono<EligibilityResponse> loader) {
+    if (!enabled) {
+      return loader;
+    }
+    String key = key(documentType, documentNumber);
+    return Mono.defer(() -> {
+      EligibilityResponse cached = cache.getIfPresent(key);
+      if (cached != null) {
+        return Mono.just(cached);
+      }
+      long loadedAt = generation.get();
+      return loader.doOnNext(value -> put(key, value, loadedAt));
+    });
+  }
+
+  private void put(String key, EligibilityResponse value, long loadedAt) {
+    if (value.getCustomerId() != null) {
+      keyById.put(value.getCustomerId(), key);
+    }
+    cache.put(key, value);
+    if (generation.get() != loadedAt) {
+      cache.invalidate(key);
+    }
+  }
+
+  public void invalidateCustomer(String customerId) {
+    generation.incrementAndGet();
+    String key = keyById.remove(customerId);
+    if (key != null) {
+      cache.invalidate(key);
+    }
+  }
+
+  public void invalidate(String documentType, String documentNumber) {
+    generation.incrementAndGet();
+    cache.invalidate(key(documentType, documentNumber));
+  }
+
+  public void invalidateAll() {
+    generation.incrementAndGet();
+    cache.invalidateAll();
+  }
+
+  // Se incrementa aunque la caché esté deshabilitada: también separa las cargas compartidas
+  public long generation() {
+    return generation.get();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    // cache.gets{result=hit|miss}, cache.evictions, cache.size con cache=customers.eligibility
+    CaffeineCacheMetrics.monitor(registry, cache, "customers.eligibility");
+  }
+
+  static String key(String documentType, String documentNumber) {
+    return documentType + ":" + documentNumber;
+  }
+}
@@ -0,0 +1,46 @@
+package com.nttdata.service.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.nttdata.model.CustomerResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+@Component
+@ConditionalOnProperty(prefix = "customers.cache.lookup", name = "enabled", havingValue = "false")
+public class NoOpCustomerLookupCache implements CustomerLookupCache {
+
+  // Sin caché igual hay que separar las cargas compartidas anteriores a una escritura
+  private final AtomicLong generation = new AtomicLong();
+
+  @Override
+  public Mono<CustomerResponse> getById(String id, Mono<CustomerResponse> loader) {
+    return loader;
+  }
+
+  @Override
+  public Mono<CustomerResponse> getByDocumentNumber(String documentNumber, Mono<CustomerResponse> loader) {
+    return loader;
+  }
+
+  @Override
+  public void evictCustomer(String id) {
+    generation.incrementAndGet();
+  }
+
+  @Override
+  public void evictDocument(String documentNumber) {
+    generation.incrementAndGet();
+  }
+
+  @Override
+  public void evictAll() {
+    generation.incrementAndGet();
+  }
+
+  @Override
+  public long generation() {
+    return generation.get();
+  }
+}
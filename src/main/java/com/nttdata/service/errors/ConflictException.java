@@ -1,5 +1,13 @@
 package com.nttdata.service.errors;
 
-public class ConflictException extends RuntimeException {
+public class ConflictException extends DomainException {
+  public static final ConflictException ACTIVE_DOCUMENT =
+          new ConflictException("Ya existe un cliente activo con ese documento");
+  public static final ConflictException OTHER_ACTIVE_DOCUMENT =
+          new ConflictException("Ya existe otro cliente activo con ese documento");
+  public static final ConflictException UNIQUE_DOCUMENT = new ConflictException("Documento ya existe (índice único)");
+  public static final ConflictException MULTIPLE_ACTIVE =
+          new ConflictException("Más de un cliente activo con el mismo documento");
+
   public ConflictException(String message) { super(message); }
-}
\ No newline at end of file
+}
@@ -0,0 +1,7 @@
+package com.nttdata.service.errors;
+
+// Errores de negocio esperados (404/409/412/422): sin stack trace ni supresión, así crearlos es barato
+// y una instancia preasignada se puede compartir entre peticiones sin que nadie la modifique
+public abstract class DomainException extends RuntimeException {
+  protected DomainException(String message) { super(message, null, false, false); }
+}
@@ -1,5 +1,9 @@
 package com.nttdata.service.errors;
 
-public class NotFoundException extends RuntimeException {
+public class NotFoundException extends DomainException {
+  public static final NotFoundException CUSTOMER = new NotFoundException("Cliente no encontrado");
+  public static final NotFoundException ACTIVE_DOCUMENT =
+          new NotFoundException("No existe cliente activo con ese documento");
+
   public NotFoundException(String message) { super(message); }
-}
\ No newline at end of file
+}
@@ -0,0 +1,8 @@
+package com.nttdata.service.errors;
+
+public class PreconditionFailedException extends DomainException {
+  public static final PreconditionFailedException STALE_VERSION =
+          new PreconditionFailedException("El cliente fue modificado por otra petición");
+
+  public PreconditionFailedException(String message) { super(message); }
+}
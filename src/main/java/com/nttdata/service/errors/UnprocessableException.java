@@ -1,5 +1,5 @@
 package com.nttdata.service.errors;
 
-public class UnprocessableException extends RuntimeException {
+public class UnprocessableException extends DomainException {
   public UnprocessableException(String message) { super(message); }
-}
\ No newline at end of file
+}
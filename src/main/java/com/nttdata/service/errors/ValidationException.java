@@ -0,0 +1,15 @@
+package com.nttdata.service.errors;
+
+import java.util.List;
+
+// 422 con todas las violaciones de la solicitud, no solo la primera
+public class ValidationException extends UnprocessableException {
+  private final List<String> errors;
+
+  public ValidationException(List<String> errors) {
+    super(String.join("; ", errors));
+    this.errors = List.copyOf(errors);
+  }
+
+  public List<String> getErrors() { return errors; }
+}
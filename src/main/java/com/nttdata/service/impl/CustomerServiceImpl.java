@@ -1,30 +1,56 @@
 package com.nttdata.service.impl;
 
 import com.nttdata.config.CustomerRequestValidator;
+import com.nttdata.config.CustomersProperties;
 import com.nttdata.domain.Customer;
 import com.nttdata.mapper.CustomerMapper;
+import com.nttdata.model.BulkCreateResult;
+import com.nttdata.model.CustomerBatchResponse;
 import com.nttdata.model.CustomerCreateRequest;
 import com.nttdata.model.CustomerResponse;
 import com.nttdata.model.CustomerSegment;
 import com.nttdata.model.CustomerType;
 import com.nttdata.model.CustomerUpdateRequest;
+import com.nttdata.model.DocumentKey;
 import com.nttdata.model.DocumentType;
+import com.nttdata.model.EligibilityBatchItem;
+import com.nttdata.model.EligibilityBatchResponse;
 import com.nttdata.model.EligibilityResponse;
+import com.nttdata.repository.BulkInsertFailure;
+import com.nttdata.repository.CustomerListQuery;
+import com.nttdata.repository.CustomerLookupBatcher;
 import com.nttdata.repository.CustomerRepository;
+import com.nttdata.service.CustomerPage;
 import com.nttdata.service.CustomerService;
+import com.nttdata.service.FieldSelection;
+import com.nttdata.service.PageCursor;
 import com.nttdata.service.RequestSanitizer;
+import com.nttdata.service.SingleFlight;
 import com.nttdata.service.SortingUtil;
+import com.nttdata.service.ValidationResult;
+import com.nttdata.service.cache.CustomerCountCache;
+import com.nttdata.service.cache.CustomerLookupCache;
+import com.nttdata.service.cache.EligibilityCache;
 import com.nttdata.service.errors.ConflictException;
+import com.nttdata.service.errors.DomainException;
 import com.nttdata.service.errors.NotFoundException;
+import com.nttdata.service.errors.PreconditionFailedException;
 import com.nttdata.service.errors.UnprocessableException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DuplicateKeyException;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 import static com.nttdata.mapper.CustomerMapper.*;
 
@@ -32,131 +58,443 @@ import static com.nttdata.mapper.CustomerMapper.*;
 @RequiredArgsConstructor
 public class CustomerServiceImpl implements CustomerService {
 
+    private static final int MIN_SEARCH_LENGTH = 2;
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+    private static final int MAX_SEARCH_LIMIT = 50;
+    private static final String UNREADABLE_RECORD =
+            "Registro con formato inválido; no se procesaron los registros siguientes";
+
     private final CustomerRepository repo;
     private final RequestSanitizer sanitizer;
     private final CustomerRequestValidator validator;
+    private final CustomersProperties properties;
+    private final EligibilityCache eligibilityCache;
+    private final CustomerLookupCache lookupCache;
+    private final CustomerLookupBatcher lookupBatcher;
+    private final CustomerCountCache countCache;
+
+    // Lecturas idénticas concurrentes comparten una consulta (detrás de la caché: solo coalescen los misses).
+    // Clave = clave de caché + generación, ver flightKey
+    private final SingleFlight<String, CustomerResponse> byIdFlight = new SingleFlight<>();
+    private final SingleFlight<String, CustomerResponse> byDocumentFlight = new SingleFlight<>();
+    private final SingleFlight<String, EligibilityResponse> eligibilityFlight = new SingleFlight<>();
 
     // List
     @Override
-    public Flux<CustomerResponse> list(CustomerType type,
-                                       CustomerSegment segment,
-                                       Integer page,
-                                       Integer size,
-                                       String sort,
-                                       String direction) {
+    public Mono<CustomerPage> list(CustomerType type,
+                                   CustomerSegment segment,
+                                   Integer page,
+                                   Integer size,
+                                   String sort,
+                                   String direction,
+                                   String cursor,
+                                   String fields,
+                                   Boolean includeTotal) {
 
         int p = (page == null || page < 0) ? 0 : page.intValue();
         int s = (size == null) ? 20 : Math.max(1, Math.min(size.intValue(), 100));
+        String typeValue = type != null ? type.getValue() : null;
+        String segmentValue = segment != null ? segment.getValue() : null;
 
-        SortingUtil.Spec spec = SortingUtil.parse(sort, direction);
-        Sort springSort = Sort.by(spec.direction , spec.property);
+        return Mono.defer(() -> {
+            CustomerListQuery.CustomerListQueryBuilder query = CustomerListQuery.builder()
+                    .type(typeValue)
+                    .segment(segmentValue)
+                    .limit(s);
+            SortingUtil.Spec spec;
+            if (cursor != null && !cursor.isBlank()) {
+                // Keyset: el orden lo fija el cursor y se ignora page
+                PageCursor after = PageCursor.decode(cursor);
+                spec = after.getSpec();
+                query.afterValue(after.getValue()).afterId(after.getId());
+            } else {
+                spec = SortingUtil.parse(sort, direction);
+                query.skip((long) p * s);
+            }
+            // _id como desempate para que el orden sea estable entre páginas (lo agrega findPage)
+            query.property(spec.property)
+                    .direction(spec.direction)
+                    .fields(FieldSelection.parse(fields, spec.property));
+            CustomerListQuery built = query.build();
+            Mono<CustomerPage> pageMono = toPage(repo.findPage(built), spec, s, built.getFields());
+            if (!Boolean.TRUE.equals(includeTotal)) {
+                return pageMono;
+            }
+            // Página y total en paralelo: la latencia es la del más lento, no la suma
+            Mono<Long> total = countCache.get(typeValue, segmentValue,
+                    () -> repo.countCustomers(typeValue, segmentValue));
+            return Mono.zip(pageMono, total, CustomerPage::withTotal);
+        });
+    }
 
-        Flux<Customer> flux;
-        if (type != null && segment != null) {
-            flux = repo.findByTypeAndSegment(type.getValue(), segment.getValue(), springSort);
-        } else if (type != null) {
-            flux = repo.findByType(type.getValue(), springSort);
-        } else if (segment != null) {
-            flux = repo.findBySegment(segment.getValue(), springSort);
-        } else {
-            flux = repo.findAll(springSort);
-        }
-        long skip = (long) p * s;
-        return flux
-                .skip(skip)
-                .take(s)
-                .map(CustomerMapper::toApi);
+    private static Mono<CustomerPage> toPage(Flux<Customer> flux, SortingUtil.Spec spec, int size,
+                                             Set<String> fields) {
+        return flux.collectList().map(list -> {
+            List<CustomerResponse> items = new ArrayList<>(list.size());
+            for (Customer c : list) {
+                items.add(CustomerMapper.toApi(c, fields));
+            }
+            String next = list.size() == size
+                    ? PageCursor.after(spec, list.get(list.size() - 1)).encode()
+                    : null;
+            return new CustomerPage(items, next, null);
+        });
     }
+
     // Create
     @Override
     public Mono<CustomerResponse> create(CustomerCreateRequest request) {
         sanitizer.sanitize(request);
         validator.validateCreate(request);
 
-        final String docType = asString(request.getDocumentType());
-        return repo.existsByDocumentTypeAndDocumentNumberAndActiveIsTrue(docType, request.getDocumentNumber())
-                .flatMap(exists -> {
-                            if (exists) {
-                                return Mono.error(new ConflictException("Ya existe un cliente activo con ese documento"));
-                            }
-                            Customer entity = toDomain(request);
-                    return repo.save(entity)
-                            .map(CustomerMapper::toApi);
-                })
-                .onErrorMap(org.springframework.dao.DuplicateKeyException.class,
-                        ex -> new ConflictException("Documento duplicado (índice único)"));
+        Mono<Customer> insert = Mono.defer(() -> repo.insert(toDomain(request)));
+        Mono<Customer> created;
+        if (properties.getWrites().isRelyOnUniqueIndex()) {
+            // El índice parcial único resuelve el duplicado en el mismo insert
+            created = insert;
+        } else {
+            final String docType = asString(request.getDocumentType());
+            created = repo.existsByDocumentTypeAndDocumentNumberAndActiveIsTrue(docType, request.getDocumentNumber())
+                    .flatMap(exists -> exists
+                            ? Mono.error(ConflictException.ACTIVE_DOCUMENT)
+                            : insert);
         }
+        return created
+                // Un "no existe" cacheado para ese documento dejó de ser cierto
+                .doOnNext(c -> lookupCache.evictDocument(c.getDocumentNumber()))
+                .map(CustomerMapper::toApi)
+                .onErrorMap(DuplicateKeyException.class,
+                        ex -> ConflictException.ACTIVE_DOCUMENT);
+    }
 
     // Get
     @Override
     public Mono<CustomerResponse> getById(String id) {
-        return repo.findById(id)
-                .switchIfEmpty(Mono.error(new NotFoundException("Cliente no encontrado")))
-                .map(CustomerMapper::toApi);
+        Mono<CustomerResponse> load = Mono.defer(() -> byIdFlight.execute(flightKey(id, lookupCache.generation()),
+                () -> lookupBatcher.findById(id).map(CustomerMapper::toApi)));
+        return lookupCache.getById(id, load)
+                .switchIfEmpty(Mono.error(NotFoundException.CUSTOMER));
     }
     // Update
     @Override
-    public Mono<CustomerResponse> update(String id, CustomerUpdateRequest request) {
-        return repo.findById(id)
-                .switchIfEmpty(Mono.error(new NotFoundException("Cliente no encontrado")))
-                .flatMap(found -> {
-                    String newDocType = request.getDocumentType() != null ? asString(request.getDocumentType()) : found.getDocumentType();
-                    String newDocNum = request.getDocumentNumber() != null ? request.getDocumentNumber() : found.getDocumentNumber();
-
-                    if (request.getSegment() == null) {
-                        return Mono.error(new UnprocessableException("segment es obligatorio en PUT"));
+    public Mono<CustomerResponse> update(String id, CustomerUpdateRequest request, Set<Long> expectedVersions) {
+        if (request.getSegment() == null) {
+            return Mono.error(new UnprocessableException("segment es obligatorio en PUT"));
+        }
+        return Mono.defer(() -> {
+                    sanitizer.sanitize(request);
+                    validator.validateUpdate(request);
+                    // PUT reemplaza todos los campos editables: no hace falta leer el documento
+                    Customer changes = new Customer();
+                    CustomerMapper.applyUpdate(changes, request);
+
+                    // updateFields devuelve el documento anterior: su documentNumber también hay que
+                    // invalidarlo si el PUT lo cambió. Diferido: con pre-chequeo la escritura se arma
+                    // y se suscribe solo si no hay otro cliente activo con el mismo documento
+                    Mono<Customer> updated = Mono.defer(() -> repo.updateFields(id, expectedVersions, changes)
+                            .switchIfEmpty(Mono.defer(() -> notUpdated(id, expectedVersions)))
+                            .doOnNext(this::evictCaches)
+                            .map(previous -> afterUpdate(previous, changes)));
+                    if (properties.getWrites().isRelyOnUniqueIndex()) {
+                        return updated;
                     }
-                    return repo.existsByDocumentTypeAndDocumentNumberAndActiveIsTrueAndIdNot(newDocType, newDocNum, found.getId())
-                            .flatMap(dup -> {
-                                if (dup) {
-                                    return Mono.error(new ConflictException("Ya existe otro cliente activo con ese documento"));
-                                }
-                                CustomerMapper.applyUpdate(found, request);
-                                return repo.save(found)
-                                        .map(CustomerMapper::toApi);
-                            });
+                    return repo.existsByDocumentTypeAndDocumentNumberAndActiveIsTrueAndIdNot(
+                                    changes.getDocumentType(), changes.getDocumentNumber(), id)
+                            .flatMap(dup -> dup
+                                    ? Mono.error(ConflictException.OTHER_ACTIVE_DOCUMENT)
+                                    : updated);
                 })
+                .doOnNext(this::evictCaches)
+                .map(CustomerMapper::toApi)
                 .onErrorMap(DuplicateKeyException.class,
-                                    ex -> new ConflictException("Documento ya existe (índice único)"));
-
+                        ex -> ConflictException.UNIQUE_DOCUMENT);
+    }
+    // Sin If-Match, un resultado vacío solo puede ser 404; con If-Match hay que distinguir 404 de 412
+    private Mono<Customer> notUpdated(String id, Set<Long> expectedVersions) {
+        if (expectedVersions == null) {
+            return Mono.error(NotFoundException.CUSTOMER);
+        }
+        return repo.existsById(id)
+                .flatMap(exists -> Mono.error(exists
+                        ? PreconditionFailedException.STALE_VERSION
+                        : NotFoundException.CUSTOMER));
+    }
+    // Estado resultante sin releer: los campos editables vienen del PUT y el resto del documento anterior
+    private static Customer afterUpdate(Customer previous, Customer changes) {
+        Long version = previous.getVersion();
+        return changes.toBuilder()
+                .id(previous.getId())
+                .createdAt(previous.getCreatedAt())
+                .deletedAt(previous.getDeletedAt())
+                .version(version == null ? 1L : version + 1)
+                .build();
+    }
+    // Invalidación local inmediata; el change stream cubre a las demás instancias
+    private void evictCaches(Customer c) {
+        eligibilityCache.invalidateCustomer(c.getId());
+        lookupCache.evictCustomer(c.getId());
+        lookupCache.evictDocument(c.getDocumentNumber());
     }
     // Delete
     @Override
     public Mono<Void> delete(String id) {
-        return repo.findById(id)
-                .switchIfEmpty(Mono.error(new NotFoundException("Cliente no encontrado")))
-                .flatMap(c -> {
-                    if (Boolean.FALSE.equals(c.getActive())){
-                        return Mono.empty();
-                    }
-                    c.setActive(false);
-                    c.setDeletedAt(Instant.now());
-                    return repo.save(c).then();
-                });
+        // Un solo findAndModify condicional; solo si no modificó nada se distingue 404 de "ya inactivo"
+        return repo.softDelete(id, Instant.now())
+                .doOnNext(this::evictCaches)
+                .switchIfEmpty(Mono.defer(() -> repo.existsById(id)
+                        .flatMap(exists -> exists
+                                ? Mono.<Customer>empty()
+                                : Mono.error(NotFoundException.CUSTOMER))))
+                .then();
     }
     // Eligibility
     @Override
     public Mono<EligibilityResponse> getEligibility(DocumentType documentType, String documentNumber) {
-        return repo.findAllByDocumentTypeAndDocumentNumberAndActiveIsTrue(
-                        CustomerMapper.asString(documentType), documentNumber)
+        String docType = CustomerMapper.asString(documentType);
+        Mono<EligibilityResponse> load = Mono.defer(() -> eligibilityFlight.execute(
+                flightKey(documentKey(docType, documentNumber), eligibilityCache.generation()),
+                () -> repo.findEligibilityByDocument(docType, documentNumber)
                 .collectList()
                 .flatMap(list -> {
                     if (list.isEmpty()) {
-                        return Mono.error(new NotFoundException("No existe cliente activo con ese documento"));
+                        return Mono.error(NotFoundException.ACTIVE_DOCUMENT);
                     }
                     if (list.size() > 1) {
-                        return Mono.error(new ConflictException("Más de un cliente activo con el mismo documento"));
+                        return Mono.error(ConflictException.MULTIPLE_ACTIVE);
                     }
                     return Mono.just(CustomerMapper.toEligibility(list.get(0)));
-                });
+                })));
+        return eligibilityCache.get(docType, documentNumber, load);
+    }
+
+    @Override
+    public Mono<EligibilityBatchResponse> getEligibilityBatch(List<DocumentKey> documents) {
+        return Mono.defer(() -> repo.findEligibilityByDocuments(numbersByType(documents))
+                .collectList()
+                .map(found -> {
+                    // Se agrupa por documento para detectar duplicados activos igual que getEligibility
+                    Map<String, List<Customer>> byKey = new HashMap<>(found.size() * 2);
+                    for (Customer c : found) {
+                        byKey.computeIfAbsent(documentKey(c.getDocumentType(), c.getDocumentNumber()),
+                                k -> new ArrayList<>(1)).add(c);
+                    }
+                    List<EligibilityBatchItem> results = new ArrayList<>(documents.size());
+                    for (DocumentKey d : documents) {
+                        List<Customer> matches = byKey.getOrDefault(
+                                documentKey(asString(d.getDocumentType()), d.getDocumentNumber()), List.of());
+                        EligibilityBatchItem item = new EligibilityBatchItem()
+                                .documentType(d.getDocumentType())
+                                .documentNumber(d.getDocumentNumber());
+                        if (matches.isEmpty()) {
+                            item.status(404).message("No existe cliente activo con ese documento");
+                        } else if (matches.size() > 1) {
+                            item.status(409).message("Más de un cliente activo con el mismo documento");
+                        } else {
+                            item.status(200).eligibility(CustomerMapper.toEligibility(matches.get(0)));
+                        }
+                        results.add(item);
+                    }
+                    return new EligibilityBatchResponse().results(results);
+                }));
     }
 
     @Override
     public Mono<CustomerResponse> getByDocumentNumber(String documentNumber) {
-        return repo.findByDocumentNumberAndActiveIsTrue(documentNumber)
-                .switchIfEmpty(Mono.error(new NotFoundException("Cliente no encontrado")))
+        Mono<CustomerResponse> load = Mono.defer(() -> byDocumentFlight.execute(
+                flightKey(documentNumber, lookupCache.generation()),
+                () -> lookupBatcher.findActiveByDocumentNumber(documentNumber).map(CustomerMapper::toApi)));
+        return lookupCache.getByDocumentNumber(documentNumber, load)
+                .switchIfEmpty(Mono.error(NotFoundException.CUSTOMER));
+    }
+
+    @Override
+    public Flux<CustomerResponse> search(String q, Integer limit) {
+        return Flux.defer(() -> {
+            String prefix = Customer.searchKey(q);
+            if (prefix == null || prefix.length() < MIN_SEARCH_LENGTH) {
+                return Flux.error(new UnprocessableException(
+                        "q debe tener al menos " + MIN_SEARCH_LENGTH + " caracteres"));
+            }
+            int capped = limit == null ? DEFAULT_SEARCH_LIMIT : Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+            return repo.searchByPrefix(prefix, capped).map(CustomerMapper::toApi);
+        });
+    }
+
+    // Batch get
+    @Override
+    public Mono<CustomerBatchResponse> getByIds(List<String> ids) {
+        // Ids repetidos se consultan una vez; la respuesta conserva el orden de entrada
+        Set<String> keys = new LinkedHashSet<>(ids);
+        return Mono.defer(() -> toBatch(keys, repo.findAllById(keys), Customer::getId,
+                CustomerLookupBatcher::canonicalId));
+    }
+
+    @Override
+    public Mono<CustomerBatchResponse> getByDocuments(List<DocumentKey> documents) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (DocumentKey d : documents) {
+            keys.add(documentKey(asString(d.getDocumentType()), d.getDocumentNumber()));
+        }
+        return Mono.defer(() -> toBatch(keys, repo.findActiveByDocuments(numbersByType(documents)),
+                c -> documentKey(c.getDocumentType(), c.getDocumentNumber()), Function.identity()));
+    }
+
+    private static Map<String, Set<String>> numbersByType(List<DocumentKey> documents) {
+        Map<String, Set<String>> numbersByType = new LinkedHashMap<>();
+        for (DocumentKey d : documents) {
+            numbersByType.computeIfAbsent(asString(d.getDocumentType()), t -> new LinkedHashSet<>())
+                    .add(d.getDocumentNumber());
+        }
+        return numbersByType;
+    }
+
+    private static String documentKey(String documentType, String documentNumber) {
+        return documentType + ":" + documentNumber;
+    }
+
+    // La generación se lee al suscribirse, después de que la caché fijó la suya: tras cualquier evict
+    // la lectura arranca una carga nueva en vez de unirse a una que puede traer datos previos a la escritura
+    private static String flightKey(String key, long generation) {
+        return key + '@' + generation;
+    }
+
+    private static Mono<CustomerBatchResponse> toBatch(Set<String> keys,
+                                                       Flux<Customer> found,
+                                                       Function<Customer, String> keyOf,
+                                                       Function<String, String> canonical) {
+        return found.collectList().map(list -> {
+            Map<String, Customer> byKey = new HashMap<>(list.size() * 2);
+            for (Customer c : list) {
+                byKey.putIfAbsent(keyOf.apply(c), c);
+            }
+            Map<String, CustomerResponse> customers = new LinkedHashMap<>(keys.size() * 2);
+            List<String> missing = new ArrayList<>();
+            for (String key : keys) {
+                // La respuesta conserva la clave tal como se pidió
+                Customer c = byKey.get(canonical.apply(key));
+                if (c != null) {
+                    customers.put(key, CustomerMapper.toApi(c));
+                } else {
+                    missing.add(key);
+                }
+            }
+            CustomerBatchResponse resp = new CustomerBatchResponse();
+            resp.setCustomers(customers);
+            resp.setMissing(missing);
+            return resp;
+        });
+    }
+
+    // Export
+    @Override
+    public Flux<CustomerResponse> export(CustomerType type, CustomerSegment segment) {
+        // La demanda del socket HTTP gobierna los getMore del cursor: heap constante
+        return repo.streamAll(type != null ? type.getValue() : null,
+                        segment != null ? segment.getValue() : null,
+                        Math.max(1, properties.getExport().getBatchSize()))
                 .map(CustomerMapper::toApi);
     }
 
+    // Bulk
+    @Override
+    public Flux<BulkCreateResult> bulkCreate(Flux<CustomerCreateRequest> records) {
+        int batchSize = Math.max(1, properties.getBulk().getBatchSize());
+        // buffer + concatMap(prefetch 1): como máximo dos lotes en memoria, el resto queda en el socket
+        return Flux.defer(() -> {
+            long[] next = {0};
+            return records.materialize()
+                    .<BulkItem>handle((signal, sink) -> {
+                        if (signal.isOnNext()) {
+                            sink.next(prepare(next[0]++, signal.get()));
+                        } else if (signal.isOnError()) {
+                            // La línea no se pudo leer (JSON o esquema): el 200 ya salió, así que se informa
+                            // como un último resultado 400 y el stream termina tras procesar lo ya leído
+                            sink.next(new BulkItem(next[0], null).fail(400, UNREADABLE_RECORD));
+                        }
+                    })
+                    .buffer(batchSize)
+                    .concatMap(this::insertBatch, 1);
+        });
+    }
+
+    private BulkItem prepare(long index, CustomerCreateRequest request) {
+        try {
+            sanitizer.sanitize(request);
+            // Sin excepciones por registro inválido: en una carga masiva pueden ser muchos
+            ValidationResult validation = validator.checkCreate(request);
+            if (!validation.isValid()) {
+                return new BulkItem(index, null).fail(422, validation.message());
+            }
+            return new BulkItem(index, toDomain(request));
+        } catch (DomainException | IllegalStateException ex) {
+            // Solo errores de negocio (y validateSegment) tienen un mensaje apto para el cliente;
+            // cualquier otro es un fallo del servidor y corta el stream
+            return new BulkItem(index, null).fail(422, ex.getMessage());
+        }
+    }
+
+    private Flux<BulkCreateResult> insertBatch(List<BulkItem> batch) {
+        Mono<List<BulkItem>> checked = properties.getWrites().isRelyOnUniqueIndex()
+                ? Mono.just(batch)
+                : Flux.fromIterable(batch).concatMap(this::precheck).collectList();
 
+        return checked.flatMapMany(items -> {
+            List<BulkItem> pending = new ArrayList<>(items.size());
+            List<Customer> customers = new ArrayList<>(items.size());
+            for (BulkItem item : items) {
+                if (item.result == null) {
+                    pending.add(item);
+                    customers.add(item.customer);
+                }
+            }
+            return repo.insertUnordered(customers)
+                    .flatMapMany(failures -> {
+                        for (BulkInsertFailure f : failures) {
+                            BulkItem item = pending.get(f.getPosition());
+                            if (f.isDuplicateKey()) {
+                                item.fail(409, "Ya existe un cliente activo con ese documento");
+                            } else {
+                                item.fail(500, f.getMessage());
+                            }
+                        }
+                        List<BulkCreateResult> results = new ArrayList<>(items.size());
+                        for (BulkItem item : items) {
+                            if (item.result == null) {
+                                lookupCache.evictDocument(item.customer.getDocumentNumber());
+                            }
+                            results.add(item.result != null ? item.result : item.created());
+                        }
+                        return Flux.fromIterable(results);
+                    });
+        });
+    }
+
+    private Mono<BulkItem> precheck(BulkItem item) {
+        if (item.result != null) {
+            return Mono.just(item);
+        }
+        return repo.existsByDocumentTypeAndDocumentNumberAndActiveIsTrue(
+                        item.customer.getDocumentType(), item.customer.getDocumentNumber())
+                .map(exists -> exists ? item.fail(409, "Ya existe un cliente activo con ese documento") : item);
+    }
+
+    private static final class BulkItem {
+        private final long index;
+        private final Customer customer;
+        private BulkCreateResult result;
+
+        private BulkItem(long index, Customer customer) {
+            this.index = index;
+            this.customer = customer;
+        }
+
+        private BulkItem fail(int status, String message) {
+            result = new BulkCreateResult().index(index).status(status).message(message);
+            return this;
+        }
+
+        private BulkCreateResult created() {
+            return new BulkCreateResult().index(index).status(201).customerId(customer.getId());
+        }
+    }
 }
@@ -0,0 +1,132 @@
+package com.nttdata.service.impl;
+
+import com.nttdata.config.CustomersProperties;
+import com.nttdata.model.CustomerStatistics;
+import com.nttdata.model.StatisticsBucket;
+import com.nttdata.repository.CustomerStatisticsRepository;
+import com.nttdata.service.CustomerStatisticsService;
+import com.nttdata.service.SingleFlight;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CustomerStatisticsServiceImpl implements CustomerStatisticsService {
+
+    private final CustomerStatisticsRepository repo;
+    private final CustomersProperties properties;
+
+    // Dueño del lease de refresco en customer_statistics
+    private final String instanceId = UUID.randomUUID().toString();
+    private final SingleFlight<String, CustomerStatistics> missingSummary = new SingleFlight<>();
+    private volatile Disposable refresher;
+
+    @Override
+    public Mono<CustomerStatistics> getStatistics() {
+        if (!properties.getStatistics().isMaterialized()) {
+            return Mono.defer(this::live);
+        }
+        // Resumen precalculado: una lectura por _id; si aún no existe (arranque en frío) las peticiones
+        // de esta instancia comparten un solo cálculo
+        return repo.findSummary()
+                .map(summary -> toStatistics(summary.get("facets", Document.class),
+                        summary.getDate("generatedAt").toInstant()))
+                .switchIfEmpty(missingSummary.execute("global", this::computeMissingSummary));
+    }
+
+    // Solo la instancia con el lease guarda el resumen; las demás responden con un cálculo en vivo mientras
+    // tanto, así el arranque en frío cuesta como mucho una agregación por instancia
+    private Mono<CustomerStatistics> computeMissingSummary() {
+        return repo.tryAcquireRefreshLease(instanceId, Instant.now(), leaseTtl())
+                .flatMap(owner -> owner ? refresh() : live());
+    }
+
+    private Mono<CustomerStatistics> live() {
+        return repo.computeFacets()
+                .map(facets -> toStatistics(facets, Instant.now()));
+    }
+
+    // Intervalo y medio: su dueño lo renueva antes de que venza
+    private Duration leaseTtl() {
+        Duration interval = properties.getStatistics().getRefreshInterval();
+        return interval.plus(interval.dividedBy(2));
+    }
+
+    @Override
+    public Mono<CustomerStatistics> refresh() {
+        Instant now = Instant.now();
+        return repo.computeFacets()
+                .flatMap(facets -> repo.saveSummary(facets, now).thenReturn(toStatistics(facets, now)));
+    }
+
+    // Recalcula el resumen periódicamente. Se recalcula completo en vez de mantener contadores con $inc
+    // en cada escritura: así no hay que coordinar create/update/delete/bulk. Entre instancias solo recalcula
+    // la que tiene el lease; si cae, otra lo toma como mucho dos intervalos y medio después
+    @EventListener(ApplicationReadyEvent.class)
+    public void startRefresher() {
+        if (!properties.getStatistics().isMaterialized()) {
+            return;
+        }
+        Duration interval = properties.getStatistics().getRefreshInterval();
+        Duration leaseTtl = leaseTtl();
+        refresher = Flux.interval(Duration.ZERO, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> repo.tryAcquireRefreshLease(instanceId, Instant.now(), leaseTtl)
+                        .filter(Boolean::booleanValue)
+                        .flatMap(owner -> refresh())
+                        .onErrorResume(ex -> {
+                            log.warn("No se pudo recalcular customer_statistics: {}", ex.getMessage());
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stopRefresher() {
+        Disposable d = refresher;
+        if (d != null) {
+            d.dispose();
+        }
+    }
+
+    public static CustomerStatistics toStatistics(Document facets, Instant generatedAt) {
+        CustomerStatistics stats = new CustomerStatistics();
+        List<Document> total = facets.getList("total", Document.class, List.of());
+        stats.setTotal(total.isEmpty() ? 0L : ((Number) total.get(0).get("total")).longValue());
+        stats.setByType(buckets(facets, "byType"));
+        stats.setBySegment(buckets(facets, "bySegment"));
+        stats.setByActive(buckets(facets, "byActive"));
+        stats.setByCountry(buckets(facets, "byCountry"));
+        stats.setCreatedByMonth(buckets(facets, "createdByMonth"));
+        stats.setGeneratedAt(generatedAt.atOffset(ZoneOffset.UTC));
+        return stats;
+    }
+
+    private static List<StatisticsBucket> buckets(Document facets, String name) {
+        List<Document> groups = facets.getList(name, Document.class, List.of());
+        List<StatisticsBucket> result = new ArrayList<>(groups.size());
+        for (Document g : groups) {
+            Object key = g.get("_id");
+            result.add(new StatisticsBucket()
+                    .key(key == null ? null : String.valueOf(key))
+                    .count(((Number) g.get("count")).longValue()));
+        }
+        return result;
+    }
+}
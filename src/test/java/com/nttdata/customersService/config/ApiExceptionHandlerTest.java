@@ -4,13 +4,17 @@ import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
 import com.nttdata.config.ApiExceptionHandler;
+import com.nttdata.service.errors.ValidationException;
 import org.junit.jupiter.api.Test;
 import org.springframework.core.codec.DecodingException;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
 import reactor.core.publisher.Mono;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -66,4 +70,14 @@ class ApiExceptionHandlerTest {
                 .block();
         assertEquals(400, resp.getStatusCodeValue());
     }
-}
\ No newline at end of file
+
+    @Test
+    void handleValidation_devuelve422_con_todos_los_errores() {
+        MockServerWebExchange exg = MockServerWebExchange.from(MockServerHttpRequest.post("/api/v1/customers"));
+        ResponseEntity<Map<String, Object>> resp = handler
+                .handleValidation(new ValidationException(List.of("type es obligatorio", "DNI debe tener 8 dígitos")), exg)
+                .block();
+        assertEquals(422, resp.getStatusCodeValue());
+        assertEquals(List.of("type es obligatorio", "DNI debe tener 8 dígitos"), resp.getBody().get("errors"));
+    }
+}
@@ -2,11 +2,17 @@ package com.nttdata.customersService.config;
 
 import com.nttdata.config.CustomerRequestValidator;
 import com.nttdata.model.CustomerCreateRequest;
+import com.nttdata.model.CustomerSegment;
 import com.nttdata.model.CustomerType;
+import com.nttdata.model.CustomerUpdateRequest;
 import com.nttdata.model.DocumentType;
+import com.nttdata.service.ValidationResult;
+import com.nttdata.service.errors.ValidationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class CustomerRequestValidatorTest {
@@ -28,35 +34,35 @@ class CustomerRequestValidatorTest {
   }
 
   @Test
-  void request_nulo_lanza_illeagalArgument() {
-    assertThrows(IllegalArgumentException.class, () -> validator.validateCreate(null));
+  void request_nulo_es_invalido() {
+    assertThrows(ValidationException.class, () -> validator.validateCreate(null));
   }
 
   @Test
   void type_nulo_es_obligatorio() {
     CustomerCreateRequest r = base().type(null);
-    assertThrows(IllegalArgumentException.class, () -> validator.validateCreate(r));
+    assertThrows(ValidationException.class, () -> validator.validateCreate(r));
   }
 
   @Test
   void documentType_nulo_es_obligatorio() {
     CustomerCreateRequest r = base().documentType(null);
-    assertThrows(IllegalArgumentException.class, () -> validator.validateCreate(r));
+    assertThrows(ValidationException.class, () -> validator.validateCreate(r));
   }
 
   @Test
   void documentNumber_vacio_es_obligatorio() {
     CustomerCreateRequest r = base().documentNumber("  ");
-    assertThrows(IllegalArgumentException.class, () -> validator.validateCreate(r));
+    assertThrows(ValidationException.class, () -> validator.validateCreate(r));
   }
 
   @Test
   void personal_requiere_firstName_y_lastName() {
     CustomerCreateRequest r1 = base().firstName("  ");
-    assertThrows(IllegalStateException.class, () -> validator.validateCreate(r1));
+    assertThrows(ValidationException.class, () -> validator.validateCreate(r1));
 
     CustomerCreateRequest r2 = base().lastName(null);
-    assertThrows(IllegalStateException.class, () -> validator.validateCreate(r2));
+    assertThrows(ValidationException.class, () -> validator.validateCreate(r2));
   }
 
   @Test
@@ -64,9 +70,9 @@ class CustomerRequestValidatorTest {
     CustomerCreateRequest r = new CustomerCreateRequest()
         .type(CustomerType.BUSINESS)
         .documentType(DocumentType.RUC)
-        .documentNumber("20123456789")
+        .documentNumber("20123456786")
         .businessName("  ");
-    assertThrows(IllegalStateException.class, () -> validator.validateCreate(r));
+    assertThrows(ValidationException.class, () -> validator.validateCreate(r));
   }
 
   @Test
@@ -78,7 +84,7 @@ class CustomerRequestValidatorTest {
     assertDoesNotThrow(() -> validator.validateCreate(ok));
 
     CustomerCreateRequest bad = base().firstName(sixtyOne);
-    assertThrows(IllegalStateException.class, () -> validator.validateCreate(bad));
+    assertThrows(ValidationException.class, () -> validator.validateCreate(bad));
   }
 
   @Test
@@ -89,23 +95,23 @@ class CustomerRequestValidatorTest {
     CustomerCreateRequest okMin = new CustomerCreateRequest()
         .type(CustomerType.BUSINESS)
         .documentType(DocumentType.RUC)
-        .documentNumber("20123456789")
+        .documentNumber("20123456786")
         .businessName(two);
     assertDoesNotThrow(() -> validator.validateCreate(okMin));
 
     CustomerCreateRequest okMax = new CustomerCreateRequest()
         .type(CustomerType.BUSINESS)
         .documentType(DocumentType.RUC)
-        .documentNumber("20123456789")
+        .documentNumber("20123456786")
         .businessName(oneTwenty);
     assertDoesNotThrow(() -> validator.validateCreate(okMax));
 
     CustomerCreateRequest bad = new CustomerCreateRequest()
         .type(CustomerType.BUSINESS)
         .documentType(DocumentType.RUC)
-        .documentNumber("20123456789")
+        .documentNumber("20123456786")
         .businessName("a");
-    assertThrows(IllegalStateException.class, () -> validator.validateCreate(bad));
+    assertThrows(ValidationException.class, () -> validator.validateCreate(bad));
   }
 
 
@@ -115,13 +121,13 @@ class CustomerRequestValidatorTest {
     assertDoesNotThrow(() -> validator.validateCreate(ok));
 
     CustomerCreateRequest bad7 = base().documentType(DocumentType.DNI).documentNumber("1234567");
-    assertThrows(IllegalStateException.class, () -> validator.validateCreate(bad7));
+    assertThrows(ValidationException.class, () -> validator.validateCreate(bad7));
 
     CustomerCreateRequest bad9 = base().documentType(DocumentType.DNI).documentNumber("123456789");
-    assertThrows(IllegalStateException.class, () -> validator.validateCreate(bad9));
+    assertThrows(ValidationException.class, () -> validator.validateCreate(bad9));
 
     CustomerCreateRequest badChars = base().documentType(DocumentType.DNI).documentNumber("12A45678");
-    assertThrows(IllegalStateException.class, () -> validator.validateCreate(badChars));
+    assertThrows(ValidationException.class, () -> validator.validateCreate(badChars));
   }
 
   @Test
@@ -129,13 +135,13 @@ class CustomerRequestValidatorTest {
     CustomerCreateRequest ok = base()
         .type(CustomerType.BUSINESS)
         .documentType(DocumentType.RUC)
-        .documentNumber("20123456789")
+        .documentNumber("20123456786")
         .firstName(null).lastName(null)
         .businessName("Mi Empresa");
     assertDoesNotThrow(() -> validator.validateCreate(ok));
 
     CustomerCreateRequest bad = ok.documentNumber("2012345678");
-    assertThrows(IllegalStateException.class, () -> validator.validateCreate(bad));
+    assertThrows(ValidationException.class, () -> validator.validateCreate(bad));
   }
 
   @Test
@@ -151,13 +157,13 @@ class CustomerRequestValidatorTest {
     assertDoesNotThrow(() -> validator.validateCreate(ok12));
 
     CustomerCreateRequest short8 = baseCe.documentNumber("A1B2C3D4");
-    assertThrows(IllegalStateException.class, () -> validator.validateCreate(short8));
+    assertThrows(ValidationException.class, () -> validator.validateCreate(short8));
 
     CustomerCreateRequest long13 = baseCe.documentNumber("A1B2C3D4E5F6G");
-    assertThrows(IllegalStateException.class, () -> validator.validateCreate(long13));
+    assertThrows(ValidationException.class, () -> validator.validateCreate(long13));
 
     CustomerCreateRequest badChar = baseCe.documentNumber("A1B2C3D4*");
-    assertThrows(IllegalStateException.class, () -> validator.validateCreate(badChar));
+    assertThrows(ValidationException.class, () -> validator.validateCreate(badChar));
   }
 
 
@@ -171,8 +177,71 @@ class CustomerRequestValidatorTest {
     CustomerCreateRequest r = new CustomerCreateRequest()
         .type(CustomerType.BUSINESS)
         .documentType(DocumentType.RUC)
-        .documentNumber("20123456789")
+        .documentNumber("20123456786")
         .businessName("Mi Empresa SAC");
     assertDoesNotThrow(() -> validator.validateCreate(r));
   }
+
+  @Test
+  void ruc_verifica_digito_verificador() {
+    CustomerCreateRequest r = new CustomerCreateRequest()
+        .type(CustomerType.BUSINESS)
+        .documentType(DocumentType.RUC)
+        .businessName("Mi Empresa");
+
+    // 10 -> 0 y 11 -> 1
+    assertDoesNotThrow(() -> validator.validateCreate(r.documentNumber("20100070970")));
+    assertDoesNotThrow(() -> validator.validateCreate(r.documentNumber("20100000131")));
+
+    ValidationException ex = assertThrows(ValidationException.class,
+        () -> validator.validateCreate(r.documentNumber("20123456789")));
+    assertEquals(List.of("RUC tiene un dígito verificador inválido"), ex.getErrors());
+  }
+
+  @Test
+  void reporta_todas_las_violaciones_juntas() {
+    CustomerCreateRequest r = base().firstName(" ").documentNumber("12A");
+
+    ValidationException ex = assertThrows(ValidationException.class, () -> validator.validateCreate(r));
+
+    assertEquals(List.of("firstName y lastName son obligatorios para PERSONAL", "DNI debe tener 8 dígitos"),
+        ex.getErrors());
+  }
+
+  @Test
+  void update_aplica_las_mismas_reglas() {
+    CustomerUpdateRequest ok = new CustomerUpdateRequest()
+        .type(CustomerType.PERSONAL)
+        .documentType(DocumentType.DNI)
+        .documentNumber("87654321")
+        .firstName("Ada")
+        .lastName("Lovelace");
+    assertDoesNotThrow(() -> validator.validateUpdate(ok));
+
+    CustomerUpdateRequest bad = ok.type(null).documentNumber("8765432");
+    ValidationException ex = assertThrows(ValidationException.class, () -> validator.validateUpdate(bad));
+    assertEquals(List.of("type es obligatorio", "DNI debe tener 8 dígitos"), ex.getErrors());
+  }
+
+  @Test
+  void checkCreate_devuelve_resultado_sin_lanzar() {
+    assertTrue(validator.checkCreate(base()).isValid());
+
+    ValidationResult bad = validator.checkCreate(base().documentType(null));
+    assertFalse(bad.isValid());
+    assertEquals("documentType es obligatorio", bad.message());
+  }
+
+  @Test
+  void update_rechaza_segment_incompatible_con_type() {
+    CustomerUpdateRequest r = new CustomerUpdateRequest()
+        .type(CustomerType.PERSONAL)
+        .segment(CustomerSegment.PYME)
+        .documentType(DocumentType.DNI)
+        .documentNumber("87654321")
+        .firstName("Ada")
+        .lastName("Lovelace");
+
+    assertEquals(List.of("A PERSONAL customer cannot be PYME"), validator.checkUpdate(r).getErrors());
+  }
 }
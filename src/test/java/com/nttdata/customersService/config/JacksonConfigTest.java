@@ -0,0 +1,30 @@
+package com.nttdata.customersService.config;
+
+import com.nttdata.config.JacksonConfig;
+import com.nttdata.model.CustomerResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JacksonConfigTest {
+
+  private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+  @Test
+  void registra_encoder_y_decoder_smile() {
+    JacksonConfig config = new JacksonConfig();
+    Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder();
+    config.jsonCustomizer().customize(builder);
+    ServerCodecConfigurer codecs = ServerCodecConfigurer.create();
+
+    config.smileCodecCustomizer(builder).customize(codecs);
+
+    ResolvableType type = ResolvableType.forClass(CustomerResponse.class);
+    assertTrue(codecs.getWriters().stream().anyMatch(w -> w.canWrite(type, SMILE)));
+    assertTrue(codecs.getReaders().stream().anyMatch(r -> r.canRead(type, SMILE)));
+  }
+}
@@ -1,16 +1,23 @@
 package com.nttdata.customersService.config;
 
+import com.nttdata.config.CustomerIndexCatalog;
+import com.nttdata.config.CustomersProperties;
+import com.nttdata.config.MongoIndexesHealthIndicator;
 import com.nttdata.config.MongoIndexesInitializer;
 import org.bson.Document;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
-import org.springframework.boot.context.event.ApplicationReadyEvent;
-import org.springframework.context.ApplicationContext;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
 import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
-import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.Index;
 import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -22,15 +29,74 @@ class MongoIndexesInitializerTest {
     ReactiveIndexOperations ops = mock(ReactiveIndexOperations.class);
 
     when(template.indexOps(any(Class.class))).thenReturn(ops);
-    when(ops.ensureIndex(any())).thenReturn(Mono.just("ux_doc_active_true"));
+    when(ops.ensureIndex(any())).thenReturn(Mono.just("ok"));
+    when(template.executeCommand(any(Document.class))).thenReturn(Mono.just(new Document()));
+
+    MongoIndexesInitializer init = new MongoIndexesInitializer(template, new CustomersProperties());
+    assertEquals(MongoIndexesInitializer.State.PENDING, init.getState());
+    init.init();
+    assertEquals(MongoIndexesInitializer.State.READY, init.getState());
+
+    ArgumentCaptor<Index> cap = ArgumentCaptor.forClass(Index.class);
+
+    verify(ops, times(CustomerIndexCatalog.indexes().size())).ensureIndex(cap.capture());
+    List<Object> names = cap.getAllValues().stream()
+        .map(i -> i.getIndexOptions().get("name"))
+        .collect(Collectors.toList());
+    assertEquals("ux_doc_active_true", names.get(0));
+    assertTrue(names.contains("ix_list_type_segment_createdAt"));
+    assertTrue(names.contains("ix_list_segment_lastName"));
+    verify(template, times(CustomerIndexCatalog.listShapes().size())).executeCommand(any(Document.class));
+    assertEquals(Status.UP, new MongoIndexesHealthIndicator(init).health().getStatus());
+  }
+
+  @Test
+  void init_con_timeout_no_bloquea_y_readiness_queda_fuera_de_servicio() {
+    ReactiveMongoTemplate template = mock(ReactiveMongoTemplate.class);
+    ReactiveIndexOperations ops = mock(ReactiveIndexOperations.class);
+    when(template.indexOps(any(Class.class))).thenReturn(ops);
+    when(ops.ensureIndex(any())).thenReturn(Mono.never());
 
-    MongoIndexesInitializer init = new MongoIndexesInitializer(template);
+    CustomersProperties props = new CustomersProperties();
+    props.getIndexes().setBootstrapTimeout(Duration.ofMillis(50));
+    MongoIndexesInitializer init = new MongoIndexesInitializer(template, props);
     init.init();
 
-    ArgumentCaptor<org.springframework.data.mongodb.core.index.Index> cap =
-        ArgumentCaptor.forClass(org.springframework.data.mongodb.core.index.Index.class);
+    assertEquals(MongoIndexesInitializer.State.PENDING, init.getState());
+    assertEquals(Status.OUT_OF_SERVICE, new MongoIndexesHealthIndicator(init).health().getStatus());
+  }
+
+  @Test
+  void readiness_down_con_la_causa_si_fallan_los_indices() {
+    MongoIndexesInitializer init = mock(MongoIndexesInitializer.class);
+    when(init.getState()).thenReturn(MongoIndexesInitializer.State.FAILED);
+    when(init.getFailure()).thenReturn(new IllegalStateException("sin permisos"));
+
+    Health health = new MongoIndexesHealthIndicator(init).health();
+
+    assertEquals(Status.DOWN, health.getStatus());
+    assertEquals("java.lang.IllegalStateException: sin permisos", health.getDetails().get("error"));
+  }
+
+  @Test
+  void catalogo_cubre_cada_filtro_con_cada_orden_permitido() {
+    // 4 combinaciones de filtro x 4 campos de orden + índice único + índice de elegibilidad
+    assertEquals(19, CustomerIndexCatalog.indexes().size());
+    assertEquals(16, CustomerIndexCatalog.listShapes().size());
+
+    Index idx = CustomerIndexCatalog.indexes().stream()
+        .filter(i -> "ix_list_type_segment_createdAt".equals(i.getIndexOptions().get("name")))
+        .findFirst().orElseThrow();
+    assertEquals(List.of("type", "segment", "createdAt", "_id"), List.copyOf(idx.getIndexKeys().keySet()));
+  }
+
+  @Test
+  void winningPlanStages_ignora_planes_rechazados() {
+    Document explain = Document.parse("{queryPlanner: {winningPlan: {stage: 'SORT', inputStage: {stage: 'COLLSCAN'}},"
+        + " rejectedPlans: [{stage: 'IXSCAN'}]}}");
+    assertEquals(List.of("SORT", "COLLSCAN"), MongoIndexesInitializer.winningPlanStages(explain));
 
-    verify(ops, times(1)).ensureIndex(cap.capture());
-    assertEquals("ux_doc_active_true", cap.getValue().getIndexOptions().get("name"));
+    Document covered = Document.parse("{queryPlanner: {winningPlan: {stage: 'FETCH', inputStage: {stage: 'IXSCAN'}}}}");
+    assertFalse(MongoIndexesInitializer.winningPlanStages(covered).contains("COLLSCAN"));
   }
 }
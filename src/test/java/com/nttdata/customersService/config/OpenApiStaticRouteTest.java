@@ -0,0 +1,75 @@
+package com.nttdata.customersService.config;
+
+import com.nttdata.config.OpenApiStaticRoute;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenApiStaticRouteTest {
+
+  private final WebTestClient client =
+      WebTestClient.bindToRouterFunction(new OpenApiStaticRoute().openApiYamlRoute()).build();
+
+  private byte[] identity() {
+    return client.get().uri("/openapi.yml").exchange()
+        .expectStatus().isOk()
+        .expectBody().returnResult().getResponseBodyContent();
+  }
+
+  @Test
+  void sirve_el_yaml_con_etag_y_cache_control() {
+    client.get().uri("/openapi.yml").exchange()
+        .expectStatus().isOk()
+        .expectHeader().contentType("application/yaml")
+        .expectHeader().exists(HttpHeaders.ETAG)
+        .expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "max-age=300, public")
+        .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+        .expectHeader().doesNotExist(HttpHeaders.CONTENT_ENCODING);
+
+    assertTrue(new String(identity()).startsWith("openapi:"));
+  }
+
+  @Test
+  void if_none_match_vigente_devuelve_304_sin_cuerpo() {
+    String etag = client.get().uri("/openapi.yml").exchange()
+        .returnResult(byte[].class).getResponseHeaders().getETag();
+
+    client.get().uri("/openapi.yml").header(HttpHeaders.IF_NONE_MATCH, "\"otro\", " + etag).exchange()
+        .expectStatus().isNotModified()
+        .expectHeader().valueEquals(HttpHeaders.ETAG, etag)
+        .expectBody().isEmpty();
+  }
+
+  @Test
+  void con_accept_encoding_gzip_sirve_la_variante_precomprimida() throws IOException {
+    HttpHeaders headers = client.get().uri("/openapi.yml").exchange()
+        .returnResult(byte[].class).getResponseHeaders();
+
+    byte[] compressed = client.get().uri("/openapi.yml")
+        .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8")
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+        .expectBody().returnResult().getResponseBodyContent();
+
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      assertArrayEquals(identity(), in.readAllBytes());
+    }
+    assertNotEquals(headers.getETag(), client.get().uri("/openapi.yml")
+        .header(HttpHeaders.ACCEPT_ENCODING, "gzip").exchange()
+        .returnResult(byte[].class).getResponseHeaders().getETag());
+  }
+
+  @Test
+  void gzip_con_q_cero_no_se_comprime() {
+    client.get().uri("/openapi.yml").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0").exchange()
+        .expectStatus().isOk()
+        .expectHeader().doesNotExist(HttpHeaders.CONTENT_ENCODING);
+  }
+}
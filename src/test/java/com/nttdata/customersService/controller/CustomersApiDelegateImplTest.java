@@ -2,7 +2,9 @@ package com.nttdata.customersService.controller;
 
 import com.nttdata.controller.CustomersApiDelegateImpl;
 import com.nttdata.model.*;
+import com.nttdata.service.CustomerPage;
 import com.nttdata.service.CustomerService;
+import com.nttdata.service.CustomerStatisticsService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -13,6 +15,9 @@ import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Set;
+
 import static com.nttdata.customersService.support.Fixtures.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -22,20 +27,36 @@ import static org.mockito.Mockito.*;
 class CustomersApiDelegateImplTest {
 
   @Mock CustomerService service;
+  @Mock CustomerStatisticsService statisticsService;
 
   @InjectMocks CustomersApiDelegateImpl delegate;
 
   @Test
   void listCustomers_devuelve_200() {
-    when(service.list(any(), any(), any(), any(), any(), any()))
-        .thenReturn(Flux.empty());
+    when(service.list(any(), any(), any(), any(), any(), any(), any(), any(), any()))
+        .thenReturn(Mono.just(new CustomerPage(List.of(), null, null)));
 
     ResponseEntity<Flux<CustomerResponse>> resp =
-        delegate.listCustomers(null, null, null, null, null, null, (ServerWebExchange) null).block();
+        delegate.listCustomers(null, null, null, null, null, null, null, null, null, (ServerWebExchange) null).block();
 
     assertNotNull(resp);
     assertEquals(200, resp.getStatusCodeValue());
     assertNotNull(resp.getBody());
+    assertFalse(resp.getHeaders().containsKey("X-Next-Cursor"));
+    assertFalse(resp.getHeaders().containsKey("X-Total-Count"));
+  }
+
+  @Test
+  void listCustomers_expone_cursor_siguiente() {
+    when(service.list(any(), any(), any(), any(), any(), any(), eq("c0"), any(), eq(true)))
+        .thenReturn(Mono.just(new CustomerPage(List.of(new CustomerResponse().id("a")), "c1", 42L)));
+
+    ResponseEntity<Flux<CustomerResponse>> resp =
+        delegate.listCustomers(null, null, null, 1, null, null, "c0", null, true, null).block();
+
+    assertEquals("c1", resp.getHeaders().getFirst("X-Next-Cursor"));
+    assertEquals("42", resp.getHeaders().getFirst("X-Total-Count"));
+    assertEquals(1, resp.getBody().collectList().block().size());
   }
 
   @Test
@@ -53,20 +74,68 @@ class CustomersApiDelegateImplTest {
 
   @Test
   void getCustomerById_devuelve_200() {
-    when(service.getById("id1")).thenReturn(Mono.just(new CustomerResponse().id("id1")));
-    ResponseEntity<CustomerResponse> resp = delegate.getCustomerById("id1", null).block();
+    when(service.getById("id1")).thenReturn(Mono.just(new CustomerResponse().id("id1").version(4L)));
+    ResponseEntity<CustomerResponse> resp = delegate.getCustomerById("id1", null, null).block();
     assertEquals(200, resp.getStatusCodeValue());
     assertEquals("id1", resp.getBody().getId());
+    assertEquals("\"4\"", resp.getHeaders().getETag());
+  }
+
+  @Test
+  void getCustomerById_con_if_none_match_vigente_devuelve_304() {
+    when(service.getById("id1")).thenReturn(Mono.just(new CustomerResponse().id("id1").version(4L)));
+    ResponseEntity<CustomerResponse> resp = delegate.getCustomerById("id1", "W/\"3\", \"4\"", null).block();
+    assertEquals(304, resp.getStatusCodeValue());
+    assertNull(resp.getBody());
+    assertEquals("\"4\"", resp.getHeaders().getETag());
   }
 
   @Test
   void updateCustomer_devuelve_200() {
-    when(service.update(eq("id2"), any(CustomerUpdateRequest.class)))
-        .thenReturn(Mono.just(new CustomerResponse().id("id2")));
+    when(service.update(eq("id2"), any(CustomerUpdateRequest.class), isNull()))
+        .thenReturn(Mono.just(new CustomerResponse().id("id2").version(1L)));
     ResponseEntity<CustomerResponse> resp =
-        delegate.updateCustomer("id2", Mono.just(new CustomerUpdateRequest().segment(CustomerSegment.VIP)), null).block();
+        delegate.updateCustomer("id2", Mono.just(new CustomerUpdateRequest().segment(CustomerSegment.VIP)), null, null)
+            .block();
     assertEquals(200, resp.getStatusCodeValue());
     assertEquals("id2", resp.getBody().getId());
+    assertEquals("\"1\"", resp.getHeaders().getETag());
+  }
+
+  @Test
+  void updateCustomer_propaga_if_match_como_version_esperada() {
+    when(service.update(eq("id2"), any(CustomerUpdateRequest.class), eq(Set.of(7L))))
+        .thenReturn(Mono.just(new CustomerResponse().id("id2").version(8L)));
+    ResponseEntity<CustomerResponse> resp =
+        delegate.updateCustomer("id2", Mono.just(new CustomerUpdateRequest()), "\"7\"", null).block();
+    assertEquals("\"8\"", resp.getHeaders().getETag());
+
+    when(service.update(eq("id2"), any(CustomerUpdateRequest.class), eq(Set.<Long>of())))
+        .thenReturn(Mono.empty());
+    delegate.updateCustomer("id2", Mono.just(new CustomerUpdateRequest()), "basura", null).block();
+    verify(service).update(eq("id2"), any(CustomerUpdateRequest.class), eq(Set.<Long>of()));
+  }
+
+  @Test
+  void updateCustomer_if_match_acepta_cualquier_etiqueta_fuerte_y_nunca_una_debil() {
+    when(service.update(eq("id2"), any(CustomerUpdateRequest.class), any())).thenReturn(Mono.empty());
+
+    delegate.updateCustomer("id2", Mono.just(new CustomerUpdateRequest()), "W/\"3\", \"5\" , \"6\"", null).block();
+    verify(service).update(eq("id2"), any(CustomerUpdateRequest.class), eq(Set.of(5L, 6L)));
+
+    // Solo débiles: ninguna versión aceptable, el servicio responde 412
+    delegate.updateCustomer("id2", Mono.just(new CustomerUpdateRequest()), "W/\"4\"", null).block();
+    verify(service).update(eq("id2"), any(CustomerUpdateRequest.class), eq(Set.<Long>of()));
+
+    delegate.updateCustomer("id2", Mono.just(new CustomerUpdateRequest()), "*", null).block();
+    verify(service).update(eq("id2"), any(CustomerUpdateRequest.class), isNull());
+  }
+
+  @Test
+  void getCustomerById_sin_version_usa_etag_cero() {
+    when(service.getById("id1")).thenReturn(Mono.just(new CustomerResponse().id("id1")));
+    ResponseEntity<CustomerResponse> resp = delegate.getCustomerById("id1", null, null).block();
+    assertEquals("\"0\"", resp.getHeaders().getETag());
   }
 
   @Test
@@ -93,4 +162,12 @@ class CustomersApiDelegateImplTest {
     assertEquals(200, resp.getStatusCodeValue());
     assertEquals("c2", resp.getBody().getId());
   }
+
+  @Test
+  void searchCustomers_devuelve_200() {
+    when(service.search("ana", 5)).thenReturn(Flux.just(new CustomerResponse().id("c3")));
+    ResponseEntity<Flux<CustomerResponse>> resp = delegate.searchCustomers("ana", 5, null).block();
+    assertEquals(200, resp.getStatusCodeValue());
+    assertEquals("c3", resp.getBody().blockFirst().getId());
+  }
 }
@@ -1,6 +1,7 @@
 package com.nttdata.customersService.domain;
 
 import com.nttdata.domain.Customer;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -42,6 +43,12 @@ class CustomerDomainTest {
     assertTrue(ex.getMessage().contains("BUSINESS") && ex.getMessage().contains("VIP"));
   }
 
+  @Test
+  void checkSegment_devuelve_error_sin_lanzar() {
+    assertNull(Customer.checkSegment("PERSONAL", "VIP"));
+    assertEquals("A BUSINESS customer cannot be VIP", Customer.checkSegment("BUSINESS", "VIP"));
+  }
+
   // ----- refreshDisplayName -----
 
   @Test
@@ -91,4 +98,29 @@ class CustomerDomainTest {
     Customer c = a.toBuilder().id("id-2").build();
     assertNotEquals(a, c);
   }
+
+  // ----- searchKeys -----
+
+  @Test
+  void searchKey_normaliza_minusculas_tildes_y_espacios() {
+    assertEquals("jose nunez", Customer.searchKey("  José   NÚÑEZ "));
+    assertNull(Customer.searchKey("   "));
+    assertNull(Customer.searchKey(null));
+  }
+
+  @Test
+  void refreshSearchKeys_incluye_nombre_palabras_email_y_documento() {
+    Customer c = Customer.builder().type("PERSONAL").segment("STANDARD")
+        .firstName("Ána").lastName("Pérez").email("Ana@Example.com").documentNumber("12345678").build();
+    c.refreshDisplayName();
+    c.refreshSearchKeys();
+    assertEquals(List.of("ana perez", "ana", "perez", "ana@example.com", "12345678"), c.getSearchKeys());
+  }
+
+  @Test
+  void refreshSearchKeys_sin_datos_deja_null() {
+    Customer c = Customer.builder().type("PERSONAL").build();
+    c.refreshSearchKeys();
+    assertNull(c.getSearchKeys());
+  }
 }
@@ -4,6 +4,9 @@ import com.nttdata.domain.Customer;
 import com.nttdata.mapper.CustomerMapper;
 import com.nttdata.model.*;
 import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static com.nttdata.customersService.support.Fixtures.*;
 
@@ -24,7 +27,15 @@ class CustomerMapperTest {
     CustomerResponse res = CustomerMapper.toApi(c);
     assertEquals(CustomerType.BUSINESS, res.getType());
     assertEquals(CustomerSegment.PYME, res.getSegment());
-    assertEquals("20123456789", res.getDocumentNumber());
+    assertEquals("20123456786", res.getDocumentNumber());
+  }
+
+  @Test
+  void toApi_version_nula_es_0_solo_si_se_proyecto() {
+    Customer c = newDomainBusiness().toBuilder().version(null).build();
+    assertEquals(0L, CustomerMapper.toApi(c).getVersion());
+    assertEquals(0L, CustomerMapper.toApi(c, Set.of("id", "version")).getVersion());
+    assertNull(CustomerMapper.toApi(c, Set.of("id", "displayName")).getVersion());
   }
 
   @Test
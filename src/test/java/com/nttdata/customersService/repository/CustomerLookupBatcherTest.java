@@ -0,0 +1,157 @@
+package com.nttdata.customersService.repository;
+
+import com.nttdata.config.CustomersProperties;
+import com.nttdata.domain.Customer;
+import com.nttdata.repository.CustomerLookupBatcher;
+import com.nttdata.repository.CustomerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static com.nttdata.customersService.support.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CustomerLookupBatcherTest {
+
+  private final CustomerRepository repo = mock(CustomerRepository.class);
+  private final CustomersProperties properties = new CustomersProperties();
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  private CustomerLookupBatcher batcher(Duration window, int maxKeys) {
+    properties.getBatching().setEnabled(true);
+    properties.getBatching().setWindow(window);
+    properties.getBatching().setMaxKeys(maxKeys);
+    return new CustomerLookupBatcher(repo, properties, registry);
+  }
+
+  @Test
+  void deshabilitado_delega_en_findById() {
+    when(repo.findById("c1")).thenReturn(Mono.just(newDomainPersonal()));
+
+    StepVerifier.create(new CustomerLookupBatcher(repo, properties, registry).findById("c1"))
+            .expectNextCount(1)
+            .verifyComplete();
+    verify(repo, never()).findAllById(anyIterable());
+  }
+
+  @Test
+  void al_llegar_a_maxKeys_resuelve_todo_con_un_solo_in() {
+    when(repo.findAllById(anyIterable())).thenReturn(Flux.just(newDomainPersonal(), newDomainBusiness()));
+    CustomerLookupBatcher batcher = batcher(Duration.ofSeconds(30), 3);
+
+    StepVerifier.create(Flux.merge(
+                    batcher.findById("c1").map(Customer::getId),
+                    batcher.findById("c2").map(Customer::getId),
+                    batcher.findById("nope").map(Customer::getId).defaultIfEmpty("vacío")).collectList())
+            .assertNext(ids -> assertEquals(Set.of("c1", "c2", "vacío"), Set.copyOf(ids)))
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+    verify(repo, times(1)).findAllById(eq(Set.of("c1", "c2", "nope")));
+    assertEquals(3.0, registry.get("customers.lookup.batch.size").tag("lookup", "id").summary().totalAmount());
+  }
+
+  @Test
+  void la_ventana_despacha_lotes_incompletos() {
+    when(repo.findByDocumentNumberInAndActiveIsTrue(anyCollection())).thenReturn(Flux.just(newDomainPersonal()));
+    CustomerLookupBatcher batcher = batcher(Duration.ofMillis(5), 100);
+
+    StepVerifier.create(batcher.findActiveByDocumentNumber("12345678"))
+            .assertNext(c -> assertEquals("c1", c.getId()))
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+  }
+
+  @Test
+  void documento_repetido_en_el_lote_falla_solo_para_esa_clave() {
+    Customer dni = newDomainPersonal();
+    Customer otroConMismoNumero = newDomainPersonal().toBuilder().id("c7").documentType("CE").build();
+    when(repo.findByDocumentNumberInAndActiveIsTrue(anyCollection()))
+            .thenReturn(Flux.just(dni, newDomainBusiness(), otroConMismoNumero));
+    CustomerLookupBatcher batcher = batcher(Duration.ofSeconds(30), 2);
+
+    Mono<Customer> repetido = batcher.findActiveByDocumentNumber("12345678").cache();
+    Mono<Customer> unico = batcher.findActiveByDocumentNumber("20123456786").cache();
+    repetido.subscribe(c -> { }, ex -> { });
+    unico.subscribe(c -> { }, ex -> { });
+
+    StepVerifier.create(repetido)
+            .expectError(IncorrectResultSizeDataAccessException.class)
+            .verify(Duration.ofSeconds(5));
+    StepVerifier.create(unico)
+            .assertNext(c -> assertEquals("c2", c.getId()))
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+  }
+
+  @Test
+  void un_error_de_la_consulta_llega_a_todos_los_que_esperan() {
+    IllegalStateException failure = new IllegalStateException("mongo caído");
+    when(repo.findAllById(anyIterable())).thenReturn(Flux.error(failure));
+    CustomerLookupBatcher batcher = batcher(Duration.ofSeconds(30), 2);
+
+    // Ambos tienen que estar en el lote antes de que se despache
+    Mono<Customer> a = batcher.findById("a").cache();
+    Mono<Customer> b = batcher.findById("b").cache();
+    a.subscribe(c -> { }, ex -> { });
+    b.subscribe(c -> { }, ex -> { });
+
+    StepVerifier.create(a).expectErrorMatches(ex -> ex == failure).verify(Duration.ofSeconds(5));
+    StepVerifier.create(b).expectErrorMatches(ex -> ex == failure).verify(Duration.ofSeconds(5));
+  }
+
+  @Test
+  void id_en_mayusculas_se_cruza_con_el_id_canonico() {
+    String id = "64b7f0c2a1b2c3d4e5f60718";
+    when(repo.findAllById(anyIterable())).thenReturn(Flux.just(newDomainPersonal().toBuilder().id(id).build()));
+    CustomerLookupBatcher batcher = batcher(Duration.ofSeconds(30), 1);
+
+    StepVerifier.create(batcher.findById(id.toUpperCase()))
+            .assertNext(c -> assertEquals(id, c.getId()))
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+    verify(repo).findAllById(eq(Set.of(id)));
+  }
+
+  @Test
+  void un_suscriptor_cancelado_sale_del_lote() {
+    when(repo.findAllById(anyIterable())).thenReturn(Flux.just(newDomainPersonal(), newDomainBusiness()));
+    CustomerLookupBatcher batcher = batcher(Duration.ofSeconds(30), 2);
+
+    Disposable cancelled = batcher.findById("nope").subscribe();
+    cancelled.dispose();
+
+    StepVerifier.create(Flux.merge(batcher.findById("c1"), batcher.findById("c2")).count())
+            .expectNext(2L)
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+    verify(repo, times(1)).findAllById(eq(Set.of("c1", "c2")));
+  }
+
+  @Test
+  void una_clave_pedida_tras_el_despacho_no_se_une_a_la_consulta_en_curso() {
+    Sinks.One<Customer> first = Sinks.one();
+    when(repo.findAllById(anyIterable())).thenReturn(Flux.from(first.asMono()), Flux.just(newDomainPersonal()));
+    CustomerLookupBatcher batcher = batcher(Duration.ofSeconds(30), 1);
+
+    Mono<Customer> stale = batcher.findById("c1").cache();
+    stale.subscribe();
+    StepVerifier.create(batcher.findById("c1"))
+            .assertNext(c -> assertEquals("Arturo", c.getFirstName()))
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+    verify(repo, times(2)).findAllById(anyIterable());
+
+    first.tryEmitValue(newDomainPersonal());
+    StepVerifier.create(stale).expectNextCount(1).verifyComplete();
+  }
+}
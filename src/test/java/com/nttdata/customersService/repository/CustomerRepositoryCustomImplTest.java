@@ -0,0 +1,186 @@
+package com.nttdata.customersService.repository;
+
+import com.nttdata.domain.Customer;
+import com.nttdata.repository.CustomerListQuery;
+import com.nttdata.repository.CustomerRepositoryCustomImpl;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CustomerRepositoryCustomImplTest {
+
+  private final ReactiveMongoTemplate template = mock(ReactiveMongoTemplate.class);
+  private final CustomerRepositoryCustomImpl repo = new CustomerRepositoryCustomImpl(template);
+
+  private Query captureFind() {
+    ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+    verify(template).find(captor.capture(), eq(Customer.class));
+    return captor.getValue();
+  }
+
+  @Test
+  void findPage_asc_usa_rango_con_desempate_por_id() {
+    when(template.find(any(Query.class), eq(Customer.class))).thenReturn(Flux.empty());
+    String id = "64b000000000000000000001";
+
+    repo.findPage(CustomerListQuery.builder()
+            .type("PERSONAL")
+            .property("lastName")
+            .direction(Sort.Direction.ASC)
+            .limit(10)
+            .afterValue("Perez")
+            .afterId(id)
+            .build()).blockLast();
+
+    Query q = captureFind();
+    assertEquals(10, q.getLimit());
+    assertEquals(new Document("lastName", 1).append("id", 1), q.getSortObject());
+
+    List<?> and = (List<?>) q.getQueryObject().get("$and");
+    assertEquals(new Document("type", "PERSONAL"), and.get(0));
+    List<?> or = (List<?>) ((Document) and.get(1)).get("$or");
+    assertEquals(new Document("lastName", new Document("$gt", "Perez")), or.get(0));
+    Document tie = (Document) or.get(1);
+    assertEquals("Perez", tie.get("lastName"));
+    assertEquals(new Document("$gt", new ObjectId(id)), tie.get("id"));
+  }
+
+  @Test
+  void findPage_desc_incluye_nulos_al_final() {
+    when(template.find(any(Query.class), eq(Customer.class))).thenReturn(Flux.empty());
+
+    repo.findPage(CustomerListQuery.builder()
+            .property("firstName")
+            .direction(Sort.Direction.DESC)
+            .limit(5)
+            .afterValue("Ada")
+            .afterId("c1")
+            .build()).blockLast();
+
+    Query q = captureFind();
+    List<?> and = (List<?>) q.getQueryObject().get("$and");
+    List<?> or = (List<?>) ((Document) and.get(0)).get("$or");
+    assertEquals(3, or.size());
+    assertEquals(new Document("firstName", null), or.get(2));
+  }
+
+  @Test
+  void findPage_sin_cursor_usa_skip_y_proyeccion() {
+    when(template.find(any(Query.class), eq(Customer.class))).thenReturn(Flux.empty());
+
+    repo.findPage(CustomerListQuery.builder()
+            .property("createdAt")
+            .direction(Sort.Direction.ASC)
+            .limit(20)
+            .skip(40)
+            .fields(Set.of("id", "createdAt", "displayName"))
+            .build()).blockLast();
+
+    Query q = captureFind();
+    assertTrue(q.getQueryObject().isEmpty());
+    assertEquals(40, q.getSkip());
+    assertEquals(20, q.getLimit());
+    assertEquals(new Document("createdAt", 1).append("id", 1), q.getSortObject());
+    assertEquals(Set.of("id", "createdAt", "displayName"), q.getFieldsObject().keySet());
+  }
+
+  @Test
+  void findEligibilityByDocuments_solo_trae_campos_de_elegibilidad() {
+    when(template.find(any(Query.class), eq(Customer.class))).thenReturn(Flux.empty());
+
+    repo.findEligibilityByDocuments(Map.of("RUC", List.of("20123456786"))).blockLast();
+
+    Query q = captureFind();
+    assertEquals(Set.of("type", "segment", "documentType", "documentNumber"), q.getFieldsObject().keySet());
+    assertEquals(true, q.getQueryObject().get("active"));
+  }
+
+  @Test
+  void countCustomers_estimado_sin_filtros_y_countDocuments_con_filtros() {
+    when(template.estimatedCount(Customer.class)).thenReturn(Mono.just(1000L));
+    when(template.count(any(Query.class), eq(Customer.class))).thenReturn(Mono.just(12L));
+
+    assertEquals(1000L, repo.countCustomers(null, null).block());
+    assertEquals(12L, repo.countCustomers(null, "VIP").block());
+
+    ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+    verify(template).count(captor.capture(), eq(Customer.class));
+    assertEquals(new Document("segment", "VIP"), captor.getValue().getQueryObject());
+  }
+
+  @Test
+  void streamAll_filtra_sin_ordenar_y_fija_batch_size() {
+    when(template.find(any(Query.class), eq(Customer.class))).thenReturn(Flux.empty());
+
+    repo.streamAll("PERSONAL", "VIP", 500).blockLast();
+
+    Query q = captureFind();
+    assertEquals(new Document("type", "PERSONAL").append("segment", "VIP"), q.getQueryObject());
+    assertTrue(q.getSortObject().isEmpty());
+    assertEquals(500, q.getMeta().getCursorBatchSize());
+  }
+
+  @Test
+  void findActiveByDocuments_un_or_por_tipo_con_in() {
+    when(template.find(any(Query.class), eq(Customer.class))).thenReturn(Flux.empty());
+
+    repo.findActiveByDocuments(Map.of("DNI", List.of("12345678", "87654321"))).blockLast();
+
+    Document filter = captureFind().getQueryObject();
+    assertEquals(true, filter.get("active"));
+    List<?> or = (List<?>) filter.get("$or");
+    assertEquals(1, or.size());
+    Document byType = (Document) or.get(0);
+    assertEquals("DNI", byType.get("documentType"));
+    assertEquals(List.of("12345678", "87654321"),
+            List.copyOf((Collection<?>) ((Document) byType.get("documentNumber")).get("$in")));
+  }
+
+  @Test
+  void searchByPrefix_regex_anclada_con_literal_escapado_y_limite() {
+    when(template.find(any(Query.class), eq(Customer.class))).thenReturn(Flux.empty());
+
+    repo.searchByPrefix("ana.p(", 20).blockLast();
+
+    Query q = captureFind();
+    Pattern regex = (Pattern) q.getQueryObject().get("searchKeys");
+    assertEquals("^ana\\.p\\(", regex.pattern());
+    // sin flags (p. ej. i): solo así Mongo acota el recorrido del índice al prefijo
+    assertEquals(0, regex.flags());
+    assertEquals(20, q.getLimit());
+  }
+
+  @Test
+  void updateFields_version_cero_incluye_documentos_sin_version_y_devuelve_el_anterior() {
+    when(template.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Customer.class)))
+            .thenReturn(Mono.empty());
+
+    repo.updateFields("c1", Set.of(0L), new Customer()).block();
+
+    ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+    verify(template).findAndModify(query.capture(), any(Update.class), options.capture(), eq(Customer.class));
+    Document version = (Document) query.getValue().getQueryObject().get("version");
+    assertEquals(Arrays.asList(0L, null), version.get("$in"));
+    assertFalse(options.getValue().isReturnNew());
+  }
+}
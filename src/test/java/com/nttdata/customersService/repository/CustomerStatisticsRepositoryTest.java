@@ -0,0 +1,107 @@
+package com.nttdata.customersService.repository;
+
+import com.nttdata.domain.Customer;
+import com.nttdata.repository.CustomerStatisticsRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CustomerStatisticsRepositoryTest {
+
+  private static final Instant NOW = Instant.parse("2024-06-01T10:00:00Z");
+
+  private final ReactiveMongoTemplate template = mock(ReactiveMongoTemplate.class);
+  private final CustomerStatisticsRepository repo = new CustomerStatisticsRepository(template);
+
+  @Test
+  void computeFacets_agrega_todas_las_facetas_en_una_sola_consulta() {
+    when(template.getCollectionName(Customer.class)).thenReturn("customers");
+    when(template.aggregate(any(Aggregation.class), eq("customers"), eq(Document.class)))
+            .thenReturn(Flux.just(new Document("total", List.of())));
+
+    StepVerifier.create(repo.computeFacets()).expectNextCount(1).verifyComplete();
+
+    ArgumentCaptor<Aggregation> captor = ArgumentCaptor.forClass(Aggregation.class);
+    verify(template).aggregate(captor.capture(), eq("customers"), eq(Document.class));
+    List<Document> pipeline = captor.getValue().toPipeline(Aggregation.DEFAULT_CONTEXT);
+    assertEquals(2, pipeline.size());
+    Document facets = pipeline.get(1).get("$facet", Document.class);
+    assertEquals(List.of("total", "byType", "bySegment", "byActive", "byCountry", "createdByMonth"),
+            List.copyOf(facets.keySet()));
+  }
+
+  @Test
+  void saveSummary_reemplaza_el_resumen_global_con_upsert() {
+    when(template.findAndReplace(any(Query.class), any(Document.class), any(FindAndReplaceOptions.class),
+            eq(Document.class), eq("customer_statistics"))).thenReturn(Mono.just(new Document()));
+    Document facets = new Document("total", List.of());
+
+    repo.saveSummary(facets, NOW).block();
+
+    ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    ArgumentCaptor<Document> summary = ArgumentCaptor.forClass(Document.class);
+    ArgumentCaptor<FindAndReplaceOptions> options = ArgumentCaptor.forClass(FindAndReplaceOptions.class);
+    verify(template).findAndReplace(query.capture(), summary.capture(), options.capture(),
+            eq(Document.class), eq("customer_statistics"));
+    assertEquals(new Document("_id", "global"), query.getValue().getQueryObject());
+    assertEquals(facets, summary.getValue().get("facets"));
+    assertEquals(Date.from(NOW), summary.getValue().get("generatedAt"));
+    assertTrue(options.getValue().isUpsert());
+  }
+
+  @Test
+  void lease_vencido_o_propio_se_toma_con_upsert() {
+    when(template.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+            eq(Document.class), eq("customer_statistics")))
+            .thenReturn(Mono.just(new Document("_id", "refresh-lease").append("owner", "a")));
+
+    StepVerifier.create(repo.tryAcquireRefreshLease("a", NOW, Duration.ofMinutes(5)))
+            .expectNext(true)
+            .verifyComplete();
+
+    ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+    ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+    verify(template).findAndModify(query.capture(), update.capture(), options.capture(),
+            eq(Document.class), eq("customer_statistics"));
+    Document filter = query.getValue().getQueryObject();
+    assertEquals("refresh-lease", filter.get("_id"));
+    assertEquals(List.of(new Document("until", new Document("$lte", Date.from(NOW))), new Document("owner", "a")),
+            filter.get("$or"));
+    assertEquals(new Document("owner", "a").append("until", Date.from(NOW.plus(Duration.ofMinutes(5)))),
+            update.getValue().getUpdateObject().get("$set"));
+    assertTrue(options.getValue().isUpsert());
+    assertTrue(options.getValue().isReturnNew());
+  }
+
+  @Test
+  void lease_de_otra_instancia_vigente_no_se_toma() {
+    // El filtro no coincide y el upsert choca con el _id existente
+    when(template.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+            eq(Document.class), eq("customer_statistics")))
+            .thenReturn(Mono.error(new DuplicateKeyException("E11000")));
+
+    StepVerifier.create(repo.tryAcquireRefreshLease("b", NOW, Duration.ofMinutes(5)))
+            .expectNext(false)
+            .verifyComplete();
+  }
+}
@@ -1,28 +1,45 @@
 package com.nttdata.customersService.service;
 
 import com.nttdata.config.CustomerRequestValidator;
+import com.nttdata.config.CustomersProperties;
 import com.nttdata.domain.Customer;
+import com.nttdata.repository.BulkInsertFailure;
+import com.nttdata.repository.CustomerListQuery;
+import com.nttdata.repository.CustomerLookupBatcher;
 import com.nttdata.repository.CustomerRepository;
+import com.nttdata.service.PageCursor;
 import com.nttdata.service.RequestSanitizer;
+import com.nttdata.service.SortingUtil;
+import com.nttdata.service.ValidationResult;
+import com.nttdata.service.cache.CaffeineCustomerLookupCache;
+import com.nttdata.service.cache.CustomerCountCache;
+import com.nttdata.service.cache.EligibilityCache;
 import com.nttdata.service.impl.CustomerServiceImpl;
 import com.nttdata.service.errors.ConflictException;
 import com.nttdata.service.errors.NotFoundException;
+import com.nttdata.service.errors.PreconditionFailedException;
 import com.nttdata.service.errors.UnprocessableException;
+import com.nttdata.service.errors.ValidationException;
 import com.nttdata.model.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.codec.DecodingException;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Sort;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.test.StepVerifier;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static com.nttdata.customersService.support.Fixtures.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -38,19 +55,22 @@ public class CustomerServiceImplTest {
     @Mock
     CustomerRequestValidator validator;
 
+    CustomersProperties properties;
     CustomerServiceImpl service;
 
     @BeforeEach
     void setUp() {
-        service = new CustomerServiceImpl(repo, sanitizer, validator);
+        properties = new CustomersProperties();
+        service = new CustomerServiceImpl(repo, sanitizer, validator, properties,
+                new EligibilityCache(properties), new CaffeineCustomerLookupCache(properties),
+                new CustomerLookupBatcher(repo, properties, new SimpleMeterRegistry()),
+                new CustomerCountCache(properties));
     }
 
     @Test
     void create_ok() {
         CustomerCreateRequest req = newPersonalCreateReq();
-        when(repo.existsByDocumentTypeAndDocumentNumberAndActiveIsTrue(eq("DNI"), eq("12345678")))
-                .thenReturn(Mono.just(false));
-        when(repo.save(any(Customer.class))).thenAnswer(inv -> Mono.just((Customer) inv.getArgument(0)));
+        when(repo.insert(any(Customer.class))).thenAnswer(inv -> Mono.just((Customer) inv.getArgument(0)));
 
         StepVerifier.create(service.create(req))
                 .assertNext(resp -> {
@@ -60,13 +80,13 @@ public class CustomerServiceImplTest {
                 .verifyComplete();
         verify(sanitizer).sanitize(eq(req));
         verify(validator).validateCreate(eq(req));
+        verify(repo, never()).existsByDocumentTypeAndDocumentNumberAndActiveIsTrue(anyString(), anyString());
     }
 
     @Test
-    void create_conflict_si_existe_documento_activo() {
+    void create_mapea_DuplicateKey_a_Conflict() {
         CustomerCreateRequest req = newPersonalCreateReq();
-        when(repo.existsByDocumentTypeAndDocumentNumberAndActiveIsTrue(anyString(), anyString()))
-                .thenReturn(Mono.just(true));
+        when(repo.insert(any(Customer.class))).thenReturn(Mono.error(new DuplicateKeyException("dup")));
 
         StepVerifier.create(service.create(req))
                 .expectError(ConflictException.class)
@@ -74,15 +94,29 @@ public class CustomerServiceImplTest {
     }
 
     @Test
-    void create_mapea_DuplicateKey_a_Conflict() {
+    void create_con_prechequeo_conflict_si_existe_documento_activo() {
+        properties.getWrites().setRelyOnUniqueIndex(false);
         CustomerCreateRequest req = newPersonalCreateReq();
         when(repo.existsByDocumentTypeAndDocumentNumberAndActiveIsTrue(anyString(), anyString()))
-                .thenReturn(Mono.just(false));
-        when(repo.save(any(Customer.class))).thenReturn(Mono.error(new DuplicateKeyException("dup")));
+                .thenReturn(Mono.just(true));
 
         StepVerifier.create(service.create(req))
                 .expectError(ConflictException.class)
                 .verify();
+        verify(repo, never()).insert(any(Customer.class));
+    }
+
+    @Test
+    void create_con_prechequeo_inserta_si_no_existe() {
+        properties.getWrites().setRelyOnUniqueIndex(false);
+        CustomerCreateRequest req = newPersonalCreateReq();
+        when(repo.existsByDocumentTypeAndDocumentNumberAndActiveIsTrue(eq("DNI"), eq("12345678")))
+                .thenReturn(Mono.just(false));
+        when(repo.insert(any(Customer.class))).thenAnswer(inv -> Mono.just((Customer) inv.getArgument(0)));
+
+        StepVerifier.create(service.create(req))
+                .expectNextCount(1)
+                .verifyComplete();
     }
 
 
@@ -95,86 +129,311 @@ public class CustomerServiceImplTest {
     }
 
     @Test
-    void update_falla_si_segment_es_nulo() {
-        Customer existing = newDomainPersonal().toBuilder().id("c1").active(true).build();
-        when(repo.findById("c1")).thenReturn(Mono.just(existing));
+    void notFound_usa_la_instancia_preasignada_sin_stack_trace() {
+        when(repo.findById("x")).thenReturn(Mono.empty());
+        StepVerifier.create(service.getById("x"))
+                .expectErrorSatisfies(ex -> {
+                    assertSame(NotFoundException.CUSTOMER, ex);
+                    assertEquals(0, ex.getStackTrace().length);
+                })
+                .verify();
+    }
 
+    @Test
+    void update_falla_si_segment_es_nulo() {
         CustomerUpdateRequest req = new CustomerUpdateRequest(); // segment null
-        StepVerifier.create(service.update("c1", req))
+        StepVerifier.create(service.update("c1", req, null))
                 .expectError(UnprocessableException.class)
                 .verify();
+        verifyNoInteractions(repo);
     }
 
     @Test
-    void update_conflict_si_otro_tiene_mismo_documento() {
-        Customer existing = newDomainPersonal().toBuilder().id("c1").build();
-        when(repo.findById("c1")).thenReturn(Mono.just(existing));
+    void update_notFound_si_no_modifica_nada() {
+        when(repo.updateFields(eq("x"), isNull(), any(Customer.class))).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.update("x", newUpdateReq().type(CustomerType.PERSONAL), null))
+                .expectError(NotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void update_con_version_obsoleta_es_precondition_failed() {
+        when(repo.updateFields(eq("c1"), eq(Set.of(3L)), any(Customer.class))).thenReturn(Mono.empty());
+        when(repo.existsById("c1")).thenReturn(Mono.just(true));
+
+        StepVerifier.create(service.update("c1", newUpdateReq().type(CustomerType.PERSONAL), Set.of(3L)))
+                .expectError(PreconditionFailedException.class)
+                .verify();
+    }
+
+    @Test
+    void update_con_version_y_sin_documento_es_notFound() {
+        when(repo.updateFields(eq("x"), eq(Set.of(3L)), any(Customer.class))).thenReturn(Mono.empty());
+        when(repo.existsById("x")).thenReturn(Mono.just(false));
+
+        StepVerifier.create(service.update("x", newUpdateReq().type(CustomerType.PERSONAL), Set.of(3L)))
+                .expectError(NotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void update_mapea_DuplicateKey_a_Conflict() {
+        when(repo.updateFields(eq("c1"), isNull(), any(Customer.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("dup")));
+
+        StepVerifier.create(service.update("c1", newUpdateReq().type(CustomerType.PERSONAL), null))
+                .expectError(ConflictException.class)
+                .verify();
+    }
+
+    @Test
+    void update_con_prechequeo_conflict_si_otro_tiene_mismo_documento() {
+        properties.getWrites().setRelyOnUniqueIndex(false);
         when(repo.existsByDocumentTypeAndDocumentNumberAndActiveIsTrueAndIdNot(anyString(), anyString(), anyString()))
                 .thenReturn(Mono.just(true));
 
-        CustomerUpdateRequest req = newUpdateReq().segment(CustomerSegment.STANDARD);
-        StepVerifier.create(service.update("c1", req))
+        CustomerUpdateRequest req = newUpdateReq().type(CustomerType.PERSONAL).segment(CustomerSegment.STANDARD);
+        StepVerifier.create(service.update("c1", req, null))
                 .expectError(ConflictException.class)
                 .verify();
+        verify(repo, never()).updateFields(anyString(), any(), any(Customer.class));
     }
 
     @Test
-    void update_ok_aplica_cambios_y_guarda() {
-        Customer existing = newDomainPersonal().toBuilder()
-                .id("c1").firstName("Arturo").lastName("Roncal").build();
-        when(repo.findById("c1")).thenReturn(Mono.just(existing));
-        when(repo.existsByDocumentTypeAndDocumentNumberAndActiveIsTrueAndIdNot(anyString(), anyString(), anyString()))
-                .thenReturn(Mono.just(false));
-        when(repo.save(any(Customer.class))).thenAnswer(inv -> Mono.just((Customer) inv.getArgument(0)));
+    void update_ok_aplica_cambios_en_un_solo_set() {
+        Customer previous = newDomainPersonal().toBuilder().version(4L).build();
+        when(repo.updateFields(eq("c1"), isNull(), any(Customer.class))).thenReturn(Mono.just(previous));
 
-        CustomerUpdateRequest req = newUpdateReq().segment(CustomerSegment.VIP).firstName("Pepe");
-        StepVerifier.create(service.update("c1", req))
+        CustomerUpdateRequest req = newUpdateReq().type(CustomerType.PERSONAL)
+                .segment(CustomerSegment.VIP).firstName("Pepe");
+        StepVerifier.create(service.update("c1", req, null))
                 .assertNext(resp -> {
+                    assertEquals("c1", resp.getId());
                     assertEquals("Pepe", resp.getFirstName());
                     assertEquals(CustomerSegment.VIP, resp.getSegment());
+                    assertEquals("87654321", resp.getDocumentNumber());
+                    assertEquals(5L, resp.getVersion());
                 })
                 .verifyComplete();
+
+        ArgumentCaptor<Customer> captor = ArgumentCaptor.forClass(Customer.class);
+        verify(repo).updateFields(eq("c1"), isNull(), captor.capture());
+        assertEquals("87654321", captor.getValue().getDocumentNumber());
+        assertEquals("Pepe", captor.getValue().getDisplayName());
+        verify(repo, never()).findById(anyString());
+        verify(sanitizer).sanitize(req);
+        verify(validator).validateUpdate(req);
+    }
+
+    @Test
+    void update_invalido_no_escribe() {
+        CustomerUpdateRequest req = newUpdateReq().type(CustomerType.PERSONAL);
+        doThrow(new ValidationException(List.of("firstName y lastName son obligatorios para PERSONAL")))
+                .when(validator).validateUpdate(req);
+
+        StepVerifier.create(service.update("c1", req, null))
+                .expectError(ValidationException.class)
+                .verify();
+        verify(repo, never()).updateFields(anyString(), any(), any(Customer.class));
     }
 
     @Test
-    void delete_soft_marca_inactivo_y_estampa_deletedAt() {
-        Customer existing = newDomainPersonal().toBuilder().id("c1").active(true).build();
-        when(repo.findById("c1")).thenReturn(Mono.just(existing));
-        when(repo.save(any(Customer.class))).thenAnswer(inv -> Mono.just((Customer) inv.getArgument(0)));
+    void delete_soft_en_un_solo_findAndModify() {
+        when(repo.softDelete(eq("c1"), any(Instant.class)))
+                .thenReturn(Mono.just(newDomainPersonal().toBuilder().active(false).build()));
 
         StepVerifier.create(service.delete("c1")).verifyComplete();
 
-        ArgumentCaptor<Customer> captor = ArgumentCaptor.forClass(Customer.class);
-        verify(repo).save(captor.capture());
-        Customer saved = captor.getValue();
-        assertFalse(Boolean.TRUE.equals(saved.getActive()));
-        assertNotNull(saved.getDeletedAt());
-        assertTrue(saved.getDeletedAt().isBefore(Instant.now().plusSeconds(5)));
+        ArgumentCaptor<Instant> captor = ArgumentCaptor.forClass(Instant.class);
+        verify(repo).softDelete(eq("c1"), captor.capture());
+        assertTrue(captor.getValue().isBefore(Instant.now().plusSeconds(5)));
+        verify(repo, never()).existsById(anyString());
+    }
+
+    @Test
+    void delete_ya_inactivo_es_idempotente() {
+        when(repo.softDelete(eq("c1"), any(Instant.class))).thenReturn(Mono.empty());
+        when(repo.existsById("c1")).thenReturn(Mono.just(true));
+
+        StepVerifier.create(service.delete("c1")).verifyComplete();
+    }
+
+    @Test
+    void delete_notFound() {
+        when(repo.softDelete(eq("x"), any(Instant.class))).thenReturn(Mono.empty());
+        when(repo.existsById("x")).thenReturn(Mono.just(false));
+
+        StepVerifier.create(service.delete("x"))
+                .expectError(NotFoundException.class)
+                .verify();
     }
 
     @Test
     void list_filtra_por_type_y_segment_con_paginacion() {
         Customer a = newDomainPersonal().toBuilder().id("a").build();
         Customer b = newDomainPersonal().toBuilder().id("b").build();
-        Customer c = newDomainPersonal().toBuilder().id("c").build();
 
-        when(repo.findByTypeAndSegment(eq("PERSONAL"), eq("VIP"), any(Sort.class)))
-                .thenReturn(Flux.fromIterable(List.of(a, b, c)));
+        when(repo.findPage(any(CustomerListQuery.class))).thenReturn(Flux.fromIterable(List.of(a, b)));
 
         StepVerifier.create(
-                        service.list(CustomerType.PERSONAL, CustomerSegment.VIP, 0, 2, "createdAt", "asc"))
-                .expectNextCount(2)
+                        service.list(CustomerType.PERSONAL, CustomerSegment.VIP, 3, 2, "lastName", "desc", null, null, null))
+                .assertNext(page -> {
+                    assertEquals(2, page.getItems().size());
+                    PageCursor next = PageCursor.decode(page.getNextCursor());
+                    assertEquals("b", next.getId());
+                    assertEquals("lastName", next.getSpec().property);
+                })
                 .verifyComplete();
 
-        StepVerifier.create(
-                        service.list(CustomerType.PERSONAL, CustomerSegment.VIP, 1, 2, "createdAt", "asc"))
-                .expectNextCount(1)
+        ArgumentCaptor<CustomerListQuery> captor = ArgumentCaptor.forClass(CustomerListQuery.class);
+        verify(repo).findPage(captor.capture());
+        CustomerListQuery q = captor.getValue();
+        assertEquals("PERSONAL", q.getType());
+        assertEquals("VIP", q.getSegment());
+        assertEquals(6, q.getSkip());
+        assertEquals(2, q.getLimit());
+        assertEquals("lastName", q.getProperty());
+        assertEquals(Sort.Direction.DESC, q.getDirection());
+        assertNull(q.getAfterId());
+        assertNull(q.getFields());
+    }
+
+    @Test
+    void list_sin_filtros_usa_defaults() {
+        when(repo.findPage(any(CustomerListQuery.class))).thenReturn(Flux.empty());
+
+        StepVerifier.create(service.list(null, null, -1, 500, "unknown", null, null, null, null))
+                .assertNext(page -> {
+                    assertTrue(page.getItems().isEmpty());
+                    assertNull(page.getNextCursor());
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<CustomerListQuery> captor = ArgumentCaptor.forClass(CustomerListQuery.class);
+        verify(repo).findPage(captor.capture());
+        CustomerListQuery q = captor.getValue();
+        assertNull(q.getType());
+        assertEquals(0, q.getSkip());
+        assertEquals(100, q.getLimit());
+        assertEquals("createdAt", q.getProperty());
+        assertEquals(Sort.Direction.ASC, q.getDirection());
+    }
+
+    @Test
+    void list_con_fields_proyecta_y_agrega_id_y_orden() {
+        when(repo.findPage(any(CustomerListQuery.class))).thenReturn(Flux.just(
+                Customer.builder().id("a").displayName("Ada").lastName("Lovelace").build()));
+
+        StepVerifier.create(service.list(null, null, null, 10, "lastName", null, null, "displayName, address", null))
+                .assertNext(page -> {
+                    CustomerResponse r = page.getItems().get(0);
+                    assertEquals("Ada", r.getDisplayName());
+                    assertNull(r.getAddress());
+                    assertNull(r.getEmail());
+                    assertNull(r.getVersion());
+                })
+                .verifyComplete();
+
+        ArgumentCaptor<CustomerListQuery> captor = ArgumentCaptor.forClass(CustomerListQuery.class);
+        verify(repo).findPage(captor.capture());
+        assertEquals(Set.of("id", "lastName", "displayName",
+                        "addressLine1", "addressCity", "addressDistrict", "addressCountry"),
+                captor.getValue().getFields());
+    }
+
+    @Test
+    void list_con_includeTotal_cuenta_en_paralelo_y_cachea_por_filtros() {
+        when(repo.findPage(any(CustomerListQuery.class))).thenReturn(Flux.just(newDomainPersonal()));
+        when(repo.countCustomers("PERSONAL", null)).thenReturn(Mono.just(57L));
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(service.list(CustomerType.PERSONAL, null, i, 20, null, null, null, null, true))
+                    .assertNext(page -> assertEquals(57L, page.getTotal()))
+                    .verifyComplete();
+        }
+        verify(repo, times(1)).countCustomers("PERSONAL", null);
+    }
+
+    @Test
+    void list_sin_includeTotal_no_cuenta() {
+        when(repo.findPage(any(CustomerListQuery.class))).thenReturn(Flux.empty());
+
+        StepVerifier.create(service.list(null, null, null, null, null, null, null, null, false))
+                .assertNext(page -> assertNull(page.getTotal()))
+                .verifyComplete();
+        verify(repo, never()).countCustomers(any(), any());
+    }
+
+    @Test
+    void list_con_field_desconocido_es_unprocessable() {
+        StepVerifier.create(service.list(null, null, null, null, null, null, null, "id,password", null))
+                .expectError(UnprocessableException.class)
+                .verify();
+        verify(repo, never()).findPage(any());
+    }
+
+    @Test
+    void search_normaliza_el_prefijo_y_limita_a_50() {
+        Customer c = Customer.builder().id("1").type("PERSONAL").segment("STANDARD")
+                .firstName("José").lastName("Núñez").displayName("José Núñez").build();
+        when(repo.searchByPrefix("jose n", 50)).thenReturn(Flux.just(c));
+
+        StepVerifier.create(service.search("  JOSÉ N", 500))
+                .assertNext(r -> assertEquals("1", r.getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void search_sin_limit_usa_20() {
+        when(repo.searchByPrefix("ana", 20)).thenReturn(Flux.empty());
+
+        StepVerifier.create(service.search("ana", null)).verifyComplete();
+    }
+
+    @Test
+    void search_con_menos_de_2_caracteres_es_unprocessable() {
+        StepVerifier.create(service.search(" á ", 10))
+                .expectError(UnprocessableException.class)
+                .verify();
+        verify(repo, never()).searchByPrefix(anyString(), anyInt());
+    }
+
+    @Test
+    void list_con_cursor_usa_keyset_e_ignora_page() {
+        Customer last = newDomainPersonal().toBuilder().id("64b000000000000000000001").lastName("Perez").build();
+        String cursor = PageCursor.after(SortingUtil.parse("lastName", "asc"), last).encode();
+        when(repo.findPage(any(CustomerListQuery.class))).thenReturn(Flux.just(newDomainPersonal()));
+
+        StepVerifier.create(service.list(CustomerType.PERSONAL, null, 7, 5, "createdAt", "desc", cursor, null, null))
+                .assertNext(page -> {
+                    assertEquals(1, page.getItems().size());
+                    assertNull(page.getNextCursor());
+                })
                 .verifyComplete();
+
+        ArgumentCaptor<CustomerListQuery> captor = ArgumentCaptor.forClass(CustomerListQuery.class);
+        verify(repo).findPage(captor.capture());
+        CustomerListQuery q = captor.getValue();
+        assertEquals("PERSONAL", q.getType());
+        assertEquals("lastName", q.getProperty());
+        assertEquals(Sort.Direction.ASC, q.getDirection());
+        assertEquals("Perez", q.getAfterValue());
+        assertEquals("64b000000000000000000001", q.getAfterId());
+        assertEquals(5, q.getLimit());
+        assertEquals(0, q.getSkip());
+    }
+
+    @Test
+    void list_con_cursor_invalido_es_unprocessable() {
+        StepVerifier.create(service.list(null, null, null, null, null, null, "%%no-base64%%", null, null))
+                .expectError(UnprocessableException.class)
+                .verify();
     }
 
     @Test
     void eligibility_not_found_si_no_hay_activo() {
-        when(repo.findAllByDocumentTypeAndDocumentNumberAndActiveIsTrue(eq("DNI"), eq("12345678")))
+        when(repo.findEligibilityByDocument(eq("DNI"), eq("12345678")))
                 .thenReturn(Flux.empty());
 
         StepVerifier.create(service.getEligibility(DocumentType.DNI, "12345678"))
@@ -186,7 +445,7 @@ public class CustomerServiceImplTest {
     void eligibility_conflict_si_hay_multiples() {
         Customer x = newDomainPersonal();
         Customer y = newDomainPersonal().toBuilder().id("c3").build();
-        when(repo.findAllByDocumentTypeAndDocumentNumberAndActiveIsTrue(anyString(), anyString()))
+        when(repo.findEligibilityByDocument(anyString(), anyString()))
                 .thenReturn(Flux.fromIterable(List.of(x, y)));
 
         StepVerifier.create(service.getEligibility(DocumentType.DNI, "12345678"))
@@ -197,7 +456,7 @@ public class CustomerServiceImplTest {
     @Test
     void eligibility_unico_devuelve_respuesta() {
         Customer x = newDomainPersonal().toBuilder().id("c9").build();
-        when(repo.findAllByDocumentTypeAndDocumentNumberAndActiveIsTrue(eq("DNI"), eq("12345678")))
+        when(repo.findEligibilityByDocument(eq("DNI"), eq("12345678")))
                 .thenReturn(Flux.just(x));
 
         StepVerifier.create(service.getEligibility(DocumentType.DNI, "12345678"))
@@ -210,6 +469,133 @@ public class CustomerServiceImplTest {
                 .verifyComplete();
     }
 
+    @Test
+    void eligibility_segunda_consulta_sale_de_cache_hasta_que_se_actualiza() {
+        Customer x = newDomainPersonal().toBuilder().id("c9").build();
+        when(repo.findEligibilityByDocument("DNI", "12345678"))
+                .thenReturn(Flux.just(x));
+        when(repo.updateFields(eq("c9"), isNull(), any(Customer.class))).thenReturn(Mono.just(x));
+
+        StepVerifier.create(service.getEligibility(DocumentType.DNI, "12345678")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(service.getEligibility(DocumentType.DNI, "12345678")).expectNextCount(1).verifyComplete();
+        verify(repo, times(1)).findEligibilityByDocument("DNI", "12345678");
+
+        StepVerifier.create(service.update("c9", newUpdateReq(), null)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(service.getEligibility(DocumentType.DNI, "12345678")).expectNextCount(1).verifyComplete();
+        verify(repo, times(2)).findEligibilityByDocument("DNI", "12345678");
+    }
+
+    @Test
+    void eligibility_no_cachea_not_found() {
+        when(repo.findEligibilityByDocument("DNI", "11111111"))
+                .thenReturn(Flux.empty());
+
+        StepVerifier.create(service.getEligibility(DocumentType.DNI, "11111111"))
+                .expectError(NotFoundException.class).verify();
+        StepVerifier.create(service.getEligibility(DocumentType.DNI, "11111111"))
+                .expectError(NotFoundException.class).verify();
+        verify(repo, times(2)).findEligibilityByDocument("DNI", "11111111");
+    }
+
+    @Test
+    void eligibilityBatch_un_resultado_por_documento_en_orden() {
+        Customer unico = newDomainPersonal().toBuilder().id("c9").build();
+        Customer dup1 = newDomainBusiness().toBuilder().id("b1").build();
+        Customer dup2 = newDomainBusiness().toBuilder().id("b2").build();
+        when(repo.findEligibilityByDocuments(anyMap())).thenReturn(Flux.just(unico, dup1, dup2));
+
+        StepVerifier.create(service.getEligibilityBatch(List.of(
+                        new DocumentKey().documentType(DocumentType.DNI).documentNumber("00000000"),
+                        new DocumentKey().documentType(DocumentType.DNI).documentNumber("12345678"),
+                        new DocumentKey().documentType(DocumentType.RUC).documentNumber("20123456786"))))
+                .assertNext(resp -> {
+                    List<EligibilityBatchItem> r = resp.getResults();
+                    assertEquals(3, r.size());
+                    assertEquals(404, r.get(0).getStatus());
+                    assertEquals("00000000", r.get(0).getDocumentNumber());
+                    assertEquals(200, r.get(1).getStatus());
+                    assertEquals("c9", r.get(1).getEligibility().getCustomerId());
+                    assertEquals(409, r.get(2).getStatus());
+                    assertNull(r.get(2).getEligibility());
+                })
+                .verifyComplete();
+        verify(repo, times(1)).findEligibilityByDocuments(anyMap());
+    }
+
+    @Test
+    void getById_cachea_el_not_found_y_el_update_invalida() {
+        Customer x = newDomainPersonal();
+        when(repo.findById("c1")).thenReturn(Mono.just(x));
+        when(repo.findById("nope")).thenReturn(Mono.empty());
+        when(repo.updateFields(eq("c1"), isNull(), any(Customer.class))).thenReturn(Mono.just(x));
+
+        StepVerifier.create(service.getById("nope")).expectError(NotFoundException.class).verify();
+        StepVerifier.create(service.getById("nope")).expectError(NotFoundException.class).verify();
+        verify(repo, times(1)).findById("nope");
+
+        StepVerifier.create(service.getById("c1")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(service.getById("c1")).expectNextCount(1).verifyComplete();
+        verify(repo, times(1)).findById("c1");
+
+        StepVerifier.create(service.update("c1", newUpdateReq(), null)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(service.getById("c1")).expectNextCount(1).verifyComplete();
+        verify(repo, times(2)).findById("c1");
+    }
+
+    @Test
+    void getById_no_se_une_a_una_carga_iniciada_antes_de_una_escritura() {
+        Sinks.One<Customer> stale = Sinks.one();
+        Customer fresh = newDomainPersonal().toBuilder().firstName("Nuevo").build();
+        when(repo.findById("c1")).thenReturn(stale.asMono(), Mono.just(fresh));
+        when(repo.softDelete(eq("c1"), any(Instant.class))).thenReturn(Mono.just(fresh));
+
+        // A queda esperando la consulta; la escritura llega mientras tanto
+        Mono<CustomerResponse> a = service.getById("c1").cache();
+        a.subscribe();
+        StepVerifier.create(service.delete("c1")).verifyComplete();
+
+        StepVerifier.create(service.getById("c1"))
+                .assertNext(r -> assertEquals("Nuevo", r.getFirstName()))
+                .verifyComplete();
+
+        stale.tryEmitValue(newDomainPersonal());
+        StepVerifier.create(a).expectNextCount(1).verifyComplete();
+        StepVerifier.create(service.getById("c1"))
+                .assertNext(r -> assertEquals("Nuevo", r.getFirstName()))
+                .verifyComplete();
+        verify(repo, times(2)).findById("c1");
+    }
+
+    @Test
+    void update_que_cambia_el_documento_invalida_el_numero_anterior() {
+        Customer previous = newDomainPersonal();
+        when(repo.findByDocumentNumberAndActiveIsTrue("12345678")).thenReturn(Mono.just(previous), Mono.empty());
+        when(repo.updateFields(eq("c1"), isNull(), any(Customer.class))).thenReturn(Mono.just(previous));
+
+        StepVerifier.create(service.getByDocumentNumber("12345678")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(service.update("c1", newUpdateReq().type(CustomerType.PERSONAL)
+                        .firstName("Arturo").lastName("Perez"), null))
+                .assertNext(r -> assertEquals("87654321", r.getDocumentNumber()))
+                .verifyComplete();
+        StepVerifier.create(service.getByDocumentNumber("12345678"))
+                .expectError(NotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void getByDocumentNumber_create_invalida_la_entrada_negativa() {
+        CustomerCreateRequest req = newPersonalCreateReq();
+        when(repo.findByDocumentNumberAndActiveIsTrue("12345678"))
+                .thenReturn(Mono.empty(), Mono.just(newDomainPersonal()));
+        when(repo.insert(any(Customer.class))).thenAnswer(inv -> Mono.just((Customer) inv.getArgument(0)));
+
+        StepVerifier.create(service.getByDocumentNumber("12345678")).expectError(NotFoundException.class).verify();
+        StepVerifier.create(service.create(req)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(service.getByDocumentNumber("12345678"))
+                .assertNext(r -> assertEquals("c1", r.getId()))
+                .verifyComplete();
+    }
+
     @Test
     void getByDocumentNumber_notFound() {
         when(repo.findByDocumentNumberAndActiveIsTrue("X")).thenReturn(Mono.empty());
@@ -218,4 +604,122 @@ public class CustomerServiceImplTest {
                 .verify();
     }
 
+    @Test
+    void getByIds_una_consulta_y_reporta_faltantes_en_orden() {
+        when(repo.findAllById(anyIterable())).thenReturn(Flux.just(newDomainBusiness(), newDomainPersonal()));
+
+        StepVerifier.create(service.getByIds(List.of("c1", "zz", "c2", "c1")))
+                .assertNext(resp -> {
+                    assertEquals(List.of("c1", "c2"), List.copyOf(resp.getCustomers().keySet()));
+                    assertEquals(List.of("zz"), resp.getMissing());
+                })
+                .verifyComplete();
+        verify(repo, times(1)).findAllById(anyIterable());
+    }
+
+    @Test
+    void getByDocuments_agrupa_por_tipo_y_usa_clave_tipo_numero() {
+        when(repo.findActiveByDocuments(anyMap())).thenReturn(Flux.just(newDomainPersonal()));
+
+        StepVerifier.create(service.getByDocuments(List.of(
+                        new DocumentKey().documentType(DocumentType.DNI).documentNumber("12345678"),
+                        new DocumentKey().documentType(DocumentType.DNI).documentNumber("87654321"),
+                        new DocumentKey().documentType(DocumentType.RUC).documentNumber("20123456786"))))
+                .assertNext(resp -> {
+                    assertEquals("c1", resp.getCustomers().get("DNI:12345678").getId());
+                    assertEquals(List.of("DNI:87654321", "RUC:20123456786"), resp.getMissing());
+                })
+                .verifyComplete();
+        verify(repo).findActiveByDocuments(eq(Map.of(
+                "DNI", Set.of("12345678", "87654321"),
+                "RUC", Set.of("20123456786"))));
+    }
+
+    @Test
+    void export_mapea_en_streaming_con_batch_configurado() {
+        properties.getExport().setBatchSize(250);
+        when(repo.streamAll("BUSINESS", null, 250))
+                .thenReturn(Flux.just(newDomainBusiness(), newDomainBusiness().toBuilder().id("c3").build()));
+
+        StepVerifier.create(service.export(CustomerType.BUSINESS, null))
+                .assertNext(r -> assertEquals("c2", r.getId()))
+                .assertNext(r -> assertEquals("c3", r.getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void bulkCreate_devuelve_un_resultado_por_registro_en_orden() {
+        properties.getBulk().setBatchSize(2);
+        CustomerCreateRequest ok1 = newPersonalCreateReq();
+        CustomerCreateRequest invalido = newPersonalCreateReq().documentNumber("1");
+        CustomerCreateRequest duplicado = newBusinessCreateReq();
+        when(validator.checkCreate(any(CustomerCreateRequest.class))).thenAnswer(inv ->
+                inv.<CustomerCreateRequest>getArgument(0).getDocumentNumber().equals("1")
+                        ? ValidationResult.of(List.of("DNI debe tener 8 dígitos"))
+                        : ValidationResult.valid());
+
+        when(repo.insertUnordered(anyList())).thenAnswer(inv -> {
+            List<Customer> batch = inv.getArgument(0);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).setId("id" + batch.get(i).getDocumentNumber());
+            }
+            // el segundo lote solo contiene el registro de empresa, que choca con el índice único
+            return Mono.just(batch.get(0).getType().equals("BUSINESS")
+                    ? List.of(new BulkInsertFailure(0, true, "E11000"))
+                    : List.<BulkInsertFailure>of());
+        });
+
+        StepVerifier.create(service.bulkCreate(Flux.just(ok1, invalido, duplicado)))
+                .assertNext(r -> {
+                    assertEquals(0L, r.getIndex());
+                    assertEquals(201, r.getStatus());
+                    assertEquals("id12345678", r.getCustomerId());
+                })
+                .assertNext(r -> {
+                    assertEquals(1L, r.getIndex());
+                    assertEquals(422, r.getStatus());
+                    assertTrue(r.getMessage().contains("DNI"));
+                })
+                .assertNext(r -> {
+                    assertEquals(2L, r.getIndex());
+                    assertEquals(409, r.getStatus());
+                })
+                .verifyComplete();
+
+        verify(repo, times(2)).insertUnordered(anyList());
+        verify(repo, never()).existsByDocumentTypeAndDocumentNumberAndActiveIsTrue(anyString(), anyString());
+        verify(validator, never()).validateCreate(any(CustomerCreateRequest.class));
+    }
+
+    @Test
+    void bulkCreate_linea_ilegible_es_un_ultimo_resultado_400_y_no_pierde_lo_leido() {
+        properties.getBulk().setBatchSize(10);
+        when(validator.checkCreate(any(CustomerCreateRequest.class))).thenReturn(ValidationResult.valid());
+        when(repo.insertUnordered(anyList())).thenAnswer(inv -> {
+            List<Customer> batch = inv.getArgument(0);
+            batch.forEach(c -> c.setId("id" + c.getDocumentNumber()));
+            return Mono.just(List.<BulkInsertFailure>of());
+        });
+
+        Flux<CustomerCreateRequest> records = Flux.just(newPersonalCreateReq())
+                .concatWith(Flux.error(new DecodingException("JSON decoding error: Unexpected character")));
+        StepVerifier.create(service.bulkCreate(records))
+                .assertNext(r -> assertEquals(201, r.getStatus()))
+                .assertNext(r -> {
+                    assertEquals(1L, r.getIndex());
+                    assertEquals(400, r.getStatus());
+                    assertFalse(r.getMessage().contains("JSON decoding"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void bulkCreate_error_inesperado_no_se_expone_como_422() {
+        doThrow(new NullPointerException("detalle interno")).when(sanitizer).sanitize(any(CustomerCreateRequest.class));
+
+        StepVerifier.create(service.bulkCreate(Flux.just(newPersonalCreateReq())))
+                .expectError(NullPointerException.class)
+                .verify();
+        verify(repo, never()).insertUnordered(anyList());
+    }
 }
@@ -0,0 +1,177 @@
+package com.nttdata.customersService.service;
+
+import com.nttdata.config.CustomersProperties;
+import com.nttdata.model.CustomerStatistics;
+import com.nttdata.repository.CustomerStatisticsRepository;
+import com.nttdata.service.impl.CustomerStatisticsServiceImpl;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerStatisticsServiceImplTest {
+
+  @Mock
+  CustomerStatisticsRepository repo;
+
+  CustomersProperties properties;
+  CustomerStatisticsServiceImpl service;
+
+  private static final Document FACETS = new Document("total", List.of(new Document("total", 3)))
+          .append("byType", List.of(new Document("_id", "PERSONAL").append("count", 2),
+                  new Document("_id", "BUSINESS").append("count", 1)))
+          .append("bySegment", List.of(new Document("_id", "STANDARD").append("count", 3)))
+          .append("byActive", List.of(new Document("_id", true).append("count", 3)))
+          .append("byCountry", List.of(new Document("_id", null).append("count", 3)))
+          .append("createdByMonth", List.of(new Document("_id", "2024-05").append("count", 3)));
+
+  @BeforeEach
+  void setUp() {
+    properties = new CustomersProperties();
+    service = new CustomerStatisticsServiceImpl(repo, properties);
+  }
+
+  @Test
+  void en_vivo_mapea_cada_faceta() {
+    when(repo.computeFacets()).thenReturn(Mono.just(FACETS));
+
+    StepVerifier.create(service.getStatistics())
+            .assertNext(s -> {
+              assertEquals(3L, s.getTotal());
+              assertEquals("PERSONAL", s.getByType().get(0).getKey());
+              assertEquals(2L, s.getByType().get(0).getCount());
+              assertEquals("true", s.getByActive().get(0).getKey());
+              assertNull(s.getByCountry().get(0).getKey());
+              assertEquals("2024-05", s.getCreatedByMonth().get(0).getKey());
+            })
+            .verifyComplete();
+    verify(repo, never()).findSummary();
+  }
+
+  @Test
+  void coleccion_vacia_da_total_cero() {
+    when(repo.computeFacets()).thenReturn(Mono.just(new Document("total", List.of())));
+
+    StepVerifier.create(service.getStatistics())
+            .assertNext(s -> {
+              assertEquals(0L, s.getTotal());
+              assertTrue(s.getByType().isEmpty());
+            })
+            .verifyComplete();
+  }
+
+  @Test
+  void materializado_lee_el_resumen_sin_agregar() {
+    properties.getStatistics().setMaterialized(true);
+    Instant generatedAt = Instant.parse("2024-06-01T10:00:00Z");
+    when(repo.findSummary()).thenReturn(Mono.just(new Document("_id", "global")
+            .append("facets", FACETS)
+            .append("generatedAt", Date.from(generatedAt))));
+
+    StepVerifier.create(service.getStatistics())
+            .assertNext(s -> {
+              assertEquals(3L, s.getTotal());
+              assertEquals(generatedAt, s.getGeneratedAt().toInstant());
+            })
+            .verifyComplete();
+    verify(repo, never()).computeFacets();
+  }
+
+  @Test
+  void materializado_sin_resumen_lo_calcula_y_guarda() {
+    properties.getStatistics().setMaterialized(true);
+    when(repo.findSummary()).thenReturn(Mono.empty());
+    when(repo.tryAcquireRefreshLease(anyString(), any(Instant.class), any(Duration.class)))
+            .thenReturn(Mono.just(true));
+    when(repo.computeFacets()).thenReturn(Mono.just(FACETS));
+    when(repo.saveSummary(eq(FACETS), any(Instant.class))).thenReturn(Mono.just(new Document()));
+
+    StepVerifier.create(service.getStatistics())
+            .assertNext(s -> assertEquals(3L, s.getTotal()))
+            .verifyComplete();
+    verify(repo).saveSummary(eq(FACETS), any(Instant.class));
+  }
+
+  @Test
+  void materializado_sin_resumen_y_sin_lease_calcula_en_vivo_sin_guardar() {
+    properties.getStatistics().setMaterialized(true);
+    when(repo.findSummary()).thenReturn(Mono.empty());
+    when(repo.tryAcquireRefreshLease(anyString(), any(Instant.class), any(Duration.class)))
+            .thenReturn(Mono.just(false));
+    when(repo.computeFacets()).thenReturn(Mono.just(FACETS));
+
+    StepVerifier.create(service.getStatistics())
+            .assertNext(s -> assertEquals(3L, s.getTotal()))
+            .verifyComplete();
+    verify(repo, never()).saveSummary(any(), any());
+  }
+
+  @Test
+  void materializado_sin_resumen_las_peticiones_concurrentes_comparten_un_calculo() {
+    properties.getStatistics().setMaterialized(true);
+    Sinks.One<Document> facets = Sinks.one();
+    when(repo.findSummary()).thenReturn(Mono.empty());
+    when(repo.tryAcquireRefreshLease(anyString(), any(Instant.class), any(Duration.class)))
+            .thenReturn(Mono.just(true));
+    when(repo.computeFacets()).thenReturn(facets.asMono());
+    when(repo.saveSummary(eq(FACETS), any(Instant.class))).thenReturn(Mono.just(new Document()));
+
+    Mono<Long> first = service.getStatistics().map(CustomerStatistics::getTotal).cache();
+    Mono<Long> second = service.getStatistics().map(CustomerStatistics::getTotal).cache();
+    first.subscribe();
+    second.subscribe();
+    facets.tryEmitValue(FACETS);
+
+    StepVerifier.create(first).expectNext(3L).verifyComplete();
+    StepVerifier.create(second).expectNext(3L).verifyComplete();
+    verify(repo, times(1)).tryAcquireRefreshLease(anyString(), any(Instant.class), any(Duration.class));
+    verify(repo, times(1)).computeFacets();
+  }
+
+  @Test
+  void refresco_periodico_solo_recalcula_con_el_lease() {
+    properties.getStatistics().setMaterialized(true);
+    properties.getStatistics().setRefreshInterval(Duration.ofHours(1));
+    when(repo.tryAcquireRefreshLease(anyString(), any(Instant.class), eq(Duration.ofMinutes(90))))
+            .thenReturn(Mono.just(false));
+
+    service.startRefresher();
+    try {
+      verify(repo, timeout(5000)).tryAcquireRefreshLease(anyString(), any(Instant.class), eq(Duration.ofMinutes(90)));
+      verify(repo, never()).computeFacets();
+    } finally {
+      service.stopRefresher();
+    }
+  }
+
+  @Test
+  void refresco_periodico_con_el_lease_guarda_el_resumen() {
+    properties.getStatistics().setMaterialized(true);
+    when(repo.tryAcquireRefreshLease(anyString(), any(Instant.class), any(Duration.class)))
+            .thenReturn(Mono.just(true));
+    when(repo.computeFacets()).thenReturn(Mono.just(FACETS));
+    when(repo.saveSummary(eq(FACETS), any(Instant.class))).thenReturn(Mono.just(new Document()));
+
+    service.startRefresher();
+    try {
+      verify(repo, timeout(5000)).saveSummary(eq(FACETS), any(Instant.class));
+    } finally {
+      service.stopRefresher();
+    }
+  }
+}
@@ -0,0 +1,233 @@
+package com.nttdata.customersService.service;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import com.nttdata.config.CustomerRequestValidator;
+import com.nttdata.config.CustomersProperties;
+import com.nttdata.config.MongoIndexesInitializer;
+import com.nttdata.controller.CustomersApiDelegateImpl;
+import com.nttdata.domain.Customer;
+import com.nttdata.model.CustomerIdsRequest;
+import com.nttdata.model.CustomerType;
+import com.nttdata.model.DocumentKey;
+import com.nttdata.model.DocumentKeysRequest;
+import com.nttdata.model.DocumentType;
+import com.nttdata.model.EligibilityBatchRequest;
+import com.nttdata.repository.CustomerListQuery;
+import com.nttdata.repository.CustomerLookupBatcher;
+import com.nttdata.repository.CustomerRepository;
+import com.nttdata.repository.CustomerStatisticsRepository;
+import com.nttdata.service.CustomerService;
+import com.nttdata.service.RequestSanitizer;
+import com.nttdata.service.cache.CaffeineCustomerLookupCache;
+import com.nttdata.service.cache.CustomerChangeStreamListener;
+import com.nttdata.service.cache.CustomerCountCache;
+import com.nttdata.service.cache.EligibilityCache;
+import com.nttdata.service.impl.CustomerServiceImpl;
+import com.nttdata.service.impl.CustomerStatisticsServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.reactivestreams.Publisher;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.nttdata.customersService.support.Fixtures.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Solo con -Pblockhound (opt-in: mvn verify sin perfil no lo ejecuta). Cada camino del controlador, del servicio
+// y de los componentes de arranque se suscribe en Schedulers.parallel, donde BlockHound no permite bloquear.
+// Antes se recorre una vez en el hilo del test: la carga de clases de Mockito/Caffeine/Jackson no cuenta
+@EnabledIfSystemProperty(named = "blockhound", matches = "true")
+class NonBlockingServiceTest {
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+  private final CustomerRepository repo = mock(CustomerRepository.class);
+  private final CustomerStatisticsRepository statisticsRepo = mock(CustomerStatisticsRepository.class);
+  private final ReactiveMongoTemplate template = mock(ReactiveMongoTemplate.class);
+  private CustomersProperties properties;
+  private CustomerService service;
+  private CustomersApiDelegateImpl delegate;
+
+  @BeforeEach
+  void setUp() {
+    properties = new CustomersProperties();
+    properties.getBatching().setEnabled(true);
+    properties.getStatistics().setMaterialized(true);
+    service = new CustomerServiceImpl(repo, new RequestSanitizer(), new CustomerRequestValidator(), properties,
+            new EligibilityCache(properties), new CaffeineCustomerLookupCache(properties),
+            new CustomerLookupBatcher(repo, properties, new SimpleMeterRegistry()),
+            new CustomerCountCache(properties));
+    delegate = new CustomersApiDelegateImpl(service, new CustomerStatisticsServiceImpl(statisticsRepo, properties));
+
+    when(repo.findAllById(anyIterable())).thenReturn(Flux.just(newDomainPersonal()));
+    when(repo.findByDocumentNumberInAndActiveIsTrue(anyCollection())).thenReturn(Flux.just(newDomainPersonal()));
+    when(repo.findEligibilityByDocument(anyString(), anyString())).thenReturn(Flux.just(newDomainPersonal()));
+    when(repo.findEligibilityByDocuments(anyMap())).thenReturn(Flux.just(newDomainPersonal()));
+    when(repo.findActiveByDocuments(anyMap())).thenReturn(Flux.just(newDomainPersonal()));
+    when(repo.findPage(any(CustomerListQuery.class))).thenReturn(Flux.just(newDomainPersonal()));
+    when(repo.countCustomers(any(), any())).thenReturn(Mono.just(1L));
+    when(repo.searchByPrefix(anyString(), anyInt())).thenReturn(Flux.just(newDomainPersonal()));
+    when(repo.streamAll(any(), any(), anyInt())).thenReturn(Flux.just(newDomainPersonal(), newDomainBusiness()));
+    when(repo.insert(any(Customer.class))).thenAnswer(inv -> Mono.just((Customer) inv.getArgument(0)));
+    when(repo.insertUnordered(anyList())).thenAnswer(inv -> {
+      List<Customer> batch = inv.getArgument(0);
+      batch.forEach(c -> c.setId("id" + c.getDocumentNumber()));
+      return Mono.just(List.of());
+    });
+    when(repo.updateFields(anyString(), any(), any(Customer.class))).thenReturn(Mono.just(newDomainPersonal()));
+    when(repo.softDelete(anyString(), any(Instant.class))).thenReturn(Mono.just(newDomainPersonal()));
+
+    when(statisticsRepo.findSummary()).thenReturn(Mono.empty());
+    when(statisticsRepo.tryAcquireRefreshLease(anyString(), any(Instant.class), any(Duration.class)))
+            .thenReturn(Mono.just(true));
+    when(statisticsRepo.computeFacets()).thenReturn(Mono.just(new Document("total", List.of())));
+    when(statisticsRepo.saveSummary(any(Document.class), any(Instant.class)))
+            .thenAnswer(inv -> Mono.just(new Document()));
+  }
+
+  @Test
+  void blockhound_esta_activo() {
+    StepVerifier.create(Mono.fromCallable(() -> {
+              Thread.sleep(1);
+              return 1;
+            }).subscribeOn(Schedulers.parallel()))
+            .expectErrorMatches(e -> e.getClass().getName().equals("reactor.blockhound.BlockingOperationError"))
+            .verify(TIMEOUT);
+  }
+
+  @Test
+  void lecturas_puntuales_y_por_lote_no_bloquean() {
+    List<Supplier<Publisher<?>>> calls = List.of(
+            () -> delegate.getCustomerById("c1", null, null),
+            () -> delegate.getCustomerByDocumentNumber("12345678", null),
+            () -> delegate.getEligibility(DocumentType.DNI, "12345678", null),
+            () -> delegate.getEligibilityBatch(Mono.just(new EligibilityBatchRequest().documents(documents())), null),
+            () -> delegate.batchGetCustomers(Mono.just(new CustomerIdsRequest().ids(List.of("c1", "c2"))), null),
+            () -> delegate.batchGetCustomersByDocument(Mono.just(new DocumentKeysRequest().documents(documents())), null));
+    assertNonBlocking(calls);
+  }
+
+  @Test
+  void listados_busqueda_exportacion_y_estadisticas_no_bloquean() {
+    List<Supplier<Publisher<?>>> calls = List.of(
+            () -> body(delegate.listCustomers(CustomerType.PERSONAL, null, 0, 20, "createdAt", "desc", null, null, true, null)),
+            () -> body(delegate.searchCustomers("arturo", 10, null)),
+            () -> body(delegate.exportCustomers(null, null, null)),
+            () -> delegate.getCustomerStatistics(null));
+    assertNonBlocking(calls);
+  }
+
+  @Test
+  void escrituras_no_bloquean() {
+    List<Supplier<Publisher<?>>> calls = List.of(
+            () -> delegate.createCustomer(Mono.just(newPersonalCreateReq()), null),
+            () -> delegate.updateCustomer("c1", Mono.just(newUpdateReq().type(CustomerType.PERSONAL)
+                    .firstName("Arturo").lastName("Perez")), null, null),
+            () -> delegate.deleteCustomer("c1", null),
+            () -> body(delegate.bulkCreateCustomers(Flux.just(newPersonalCreateReq(), newBusinessCreateReq()), null)));
+    assertNonBlocking(calls);
+  }
+
+  @Test
+  void refresco_de_estadisticas_no_bloquea() {
+    CustomerStatisticsServiceImpl statistics = new CustomerStatisticsServiceImpl(statisticsRepo, properties);
+    // Flux.interval ya emite en Schedulers.parallel
+    statistics.startRefresher();
+    try {
+      verify(statisticsRepo, timeout(TIMEOUT.toMillis())).saveSummary(any(Document.class), any(Instant.class));
+    } finally {
+      statistics.stopRefresher();
+    }
+  }
+
+  @Test
+  void creacion_de_indices_no_bloquea_fuera_de_la_espera_de_arranque() {
+    ReactiveIndexOperations ops = mock(ReactiveIndexOperations.class);
+    when(template.indexOps(any(Class.class))).thenReturn(ops);
+    when(ops.ensureIndex(any())).thenAnswer(inv -> Mono.just("ok").publishOn(Schedulers.parallel()));
+    when(template.executeCommand(any(Document.class)))
+            .thenAnswer(inv -> Mono.just(new Document()).publishOn(Schedulers.parallel()));
+
+    // init() espera a propósito en el hilo de arranque; los callbacks corren en parallel
+    MongoIndexesInitializer initializer = new MongoIndexesInitializer(template, properties);
+    initializer.init();
+    assertEquals(MongoIndexesInitializer.State.READY, initializer.getState());
+    verify(template, timeout(TIMEOUT.toMillis()).atLeastOnce()).executeCommand(any(Document.class));
+  }
+
+  @Test
+  void change_stream_invalida_sin_bloquear() throws InterruptedException {
+    CaffeineCustomerLookupCache lookupCache = new CaffeineCustomerLookupCache(properties);
+    CustomerChangeStreamListener listener = new CustomerChangeStreamListener(template, properties,
+            new EligibilityCache(properties), lookupCache);
+    CountDownLatch processed = new CountDownLatch(1);
+    when(template.getCollectionName(Customer.class)).thenReturn("customers");
+    when(template.changeStream(anyString(), any(ChangeStreamOptions.class), eq(Document.class)))
+            .thenReturn(Flux.just(event(OperationType.UPDATE), event(OperationType.DELETE))
+                    .publishOn(Schedulers.parallel())
+                    // Solo completa si onChange procesó ambos eventos sin lanzar
+                    .doOnComplete(processed::countDown));
+
+    listener.start();
+    try {
+      assertTrue(processed.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+      // evictAll al suscribirse + evictAll por documentNumber + evictCustomer del delete
+      assertTrue(lookupCache.generation() >= 3);
+    } finally {
+      listener.stop();
+    }
+  }
+
+  private static void assertNonBlocking(List<Supplier<Publisher<?>>> calls) {
+    for (Supplier<Publisher<?>> call : calls) {
+      Flux.from(call.get()).blockLast(TIMEOUT);
+    }
+    for (Supplier<Publisher<?>> call : calls) {
+      StepVerifier.create(Flux.defer(() -> Flux.<Object>from(call.get())).subscribeOn(Schedulers.parallel()))
+              .thenConsumeWhile(x -> true)
+              .expectComplete()
+              .verify(TIMEOUT);
+    }
+  }
+
+  private static <T> Flux<T> body(Mono<ResponseEntity<Flux<T>>> response) {
+    return response.flatMapMany(ResponseEntity::getBody);
+  }
+
+  private static List<DocumentKey> documents() {
+    return List.of(new DocumentKey().documentType(DocumentType.DNI).documentNumber("12345678"),
+            new DocumentKey().documentType(DocumentType.DNI).documentNumber("87654321"));
+  }
+
+  private static ChangeStreamEvent<Document> event(OperationType type) {
+    UpdateDescription description = type == OperationType.UPDATE
+            ? new UpdateDescription(List.of(), new BsonDocument("documentNumber", new BsonString("87654321")))
+            : null;
+    ChangeStreamDocument<Document> raw = new ChangeStreamDocument<>(type, new BsonDocument(), null, null, null,
+            new BsonDocument("_id", new BsonString("c1")), null, description, null, null);
+    return new ChangeStreamEvent<>(raw, Document.class, null);
+  }
+}
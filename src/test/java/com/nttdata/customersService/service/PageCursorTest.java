@@ -0,0 +1,45 @@
+package com.nttdata.customersService.service;
+
+import com.nttdata.domain.Customer;
+import com.nttdata.service.PageCursor;
+import com.nttdata.service.SortingUtil;
+import com.nttdata.service.errors.UnprocessableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+  @Test
+  void roundtrip_createdAt() {
+    Instant at = Instant.parse("2024-05-01T10:15:30.123Z");
+    Customer c = Customer.builder().id("64b000000000000000000001").createdAt(at).build();
+
+    PageCursor decoded = PageCursor.decode(PageCursor.after(SortingUtil.parse(null, "desc"), c).encode());
+
+    assertEquals("createdAt", decoded.getSpec().property);
+    assertEquals(Sort.Direction.DESC, decoded.getSpec().direction);
+    assertEquals(at, decoded.getValue());
+    assertEquals("64b000000000000000000001", decoded.getId());
+  }
+
+  @Test
+  void roundtrip_valor_nulo_y_separadores() {
+    Customer sinNombre = Customer.builder().id("x1").build();
+    PageCursor nulo = PageCursor.decode(PageCursor.after(SortingUtil.parse("firstName", "asc"), sinNombre).encode());
+    assertNull(nulo.getValue());
+
+    Customer raro = Customer.builder().id("x2").businessName("A|B = C").build();
+    PageCursor conPipe = PageCursor.decode(PageCursor.after(SortingUtil.parse("businessName", "asc"), raro).encode());
+    assertEquals("A|B = C", conPipe.getValue());
+  }
+
+  @Test
+  void cursor_manipulado_es_invalido() {
+    assertThrows(UnprocessableException.class, () -> PageCursor.decode("no es base64!"));
+    assertThrows(UnprocessableException.class, () -> PageCursor.decode("djF8cGhvbmV8QVNDfGlkfC0"));
+  }
+}
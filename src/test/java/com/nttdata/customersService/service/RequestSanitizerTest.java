@@ -0,0 +1,84 @@
+package com.nttdata.customersService.service;
+
+import com.nttdata.model.Address;
+import com.nttdata.model.CustomerCreateRequest;
+import com.nttdata.model.CustomerUpdateRequest;
+import com.nttdata.service.RequestSanitizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestSanitizerTest {
+
+  private final RequestSanitizer sanitizer = new RequestSanitizer();
+
+  @Test
+  void create_normaliza_nombres_espacios_documento_y_email() {
+    CustomerCreateRequest r = new CustomerCreateRequest()
+        .firstName("  aNA \t maría ").lastName("PÉREZ")
+        .businessName("  Acme \n  S.A.C. ")
+        .documentNumber(" 12345678 ").phone(" 999888777 ")
+        .email("  Ana.Perez@Example.COM ")
+        .address(new Address().line1(" jr. los  sauces 123 ").city("LIMA").district(" san   isidro").country("perú"));
+
+    sanitizer.sanitize(r);
+
+    assertEquals("Ana María", r.getFirstName());
+    assertEquals("Pérez", r.getLastName());
+    assertEquals("Acme S.A.C.", r.getBusinessName());
+    assertEquals("12345678", r.getDocumentNumber());
+    assertEquals("999888777", r.getPhone());
+    assertEquals("ana.perez@example.com", r.getEmail());
+    assertEquals("jr. los sauces 123", r.getAddress().getLine1());
+    assertEquals("Lima", r.getAddress().getCity());
+    assertEquals("San Isidro", r.getAddress().getDistrict());
+    assertEquals("Perú", r.getAddress().getCountry());
+  }
+
+  @Test
+  void valores_ya_normalizados_conservan_la_misma_instancia() {
+    String first = "Ana María";
+    String business = "Acme S.A.C.";
+    String email = "ana@example.com";
+    String city = "San Isidro";
+    CustomerUpdateRequest r = new CustomerUpdateRequest()
+        .firstName(first).businessName(business).email(email)
+        .address(new Address().city(city));
+
+    sanitizer.sanitize(r);
+
+    assertSame(first, r.getFirstName());
+    assertSame(business, r.getBusinessName());
+    assertSame(email, r.getEmail());
+    assertSame(city, r.getAddress().getCity());
+  }
+
+  @Test
+  void solo_espacios_queda_vacio_y_null_se_mantiene() {
+    CustomerUpdateRequest r = new CustomerUpdateRequest().firstName(" \t ").lastName(null);
+
+    sanitizer.sanitize(r);
+
+    assertEquals("", r.getFirstName());
+    assertNull(r.getLastName());
+    assertNull(r.getAddress());
+  }
+
+  @Test
+  void no_depende_del_locale_por_defecto() {
+    Locale previous = Locale.getDefault();
+    Locale.setDefault(new Locale("tr", "TR"));
+    try {
+      CustomerCreateRequest r = new CustomerCreateRequest().firstName("IGOR").email("INFO@ACME.COM");
+
+      sanitizer.sanitize(r);
+
+      assertEquals("Igor", r.getFirstName());
+      assertEquals("info@acme.com", r.getEmail());
+    } finally {
+      Locale.setDefault(previous);
+    }
+  }
+}
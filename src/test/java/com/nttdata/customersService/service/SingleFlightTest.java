@@ -0,0 +1,63 @@
+package com.nttdata.customersService.service;
+
+import com.nttdata.service.SingleFlight;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+  private final SingleFlight<String, String> flight = new SingleFlight<>();
+
+  @Test
+  void llamadores_concurrentes_comparten_una_carga() {
+    AtomicInteger loads = new AtomicInteger();
+    Sinks.One<String> db = Sinks.one();
+
+    Mono<String> a = flight.execute("c1", () -> { loads.incrementAndGet(); return db.asMono(); });
+    Mono<String> b = flight.execute("c1", () -> { loads.incrementAndGet(); return db.asMono(); });
+
+    StepVerifier.create(Mono.zip(a, b))
+            .then(() -> {
+              assertEquals(1, flight.inFlight());
+              db.tryEmitValue("cliente");
+            })
+            .assertNext(t -> {
+              assertEquals("cliente", t.getT1());
+              assertEquals("cliente", t.getT2());
+            })
+            .expectComplete()
+            .verify(Duration.ofSeconds(5));
+    assertEquals(1, loads.get());
+    assertEquals(0, flight.inFlight());
+  }
+
+  @Test
+  void tras_completar_la_siguiente_llamada_vuelve_a_cargar() {
+    AtomicInteger loads = new AtomicInteger();
+
+    for (int i = 0; i < 2; i++) {
+      StepVerifier.create(flight.execute("c1", () -> Mono.fromCallable(() -> "v" + loads.incrementAndGet())))
+              .expectNext("v" + (i + 1))
+              .verifyComplete();
+    }
+    assertEquals(0, flight.inFlight());
+  }
+
+  @Test
+  void claves_distintas_no_se_comparten_y_los_errores_liberan_la_entrada() {
+    StepVerifier.create(flight.execute("x", () -> Mono.error(new IllegalStateException("boom"))))
+            .expectError(IllegalStateException.class)
+            .verify();
+    StepVerifier.create(flight.execute("y", () -> Mono.just("ok")))
+            .expectNext("ok")
+            .verifyComplete();
+    assertEquals(0, flight.inFlight());
+  }
+}
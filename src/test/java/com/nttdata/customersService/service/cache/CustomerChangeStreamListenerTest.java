@@ -0,0 +1,51 @@
+package com.nttdata.customersService.service.cache;
+
+import com.mongodb.client.model.changestream.UpdateDescription;
+import com.nttdata.service.cache.CustomerChangeStreamListener;
+import org.bson.BsonDocument;
+import org.bson.BsonInt64;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerChangeStreamListenerTest {
+
+  @Test
+  void idOf_acepta_objectId_y_string() {
+    ObjectId oid = new ObjectId();
+    assertEquals(oid.toHexString(),
+            CustomerChangeStreamListener.idOf(new BsonDocument("_id", new BsonObjectId(oid))));
+    assertEquals("c1", CustomerChangeStreamListener.idOf(new BsonDocument("_id", new BsonString("c1"))));
+    assertNull(CustomerChangeStreamListener.idOf(null));
+  }
+
+  @Test
+  void update_que_solo_cambia_email_o_version_no_invalida() {
+    UpdateDescription irrelevante = new UpdateDescription(List.of(),
+            new BsonDocument("email", new BsonString("a@b.com")).append("version", new BsonInt64(3)));
+    assertFalse(CustomerChangeStreamListener.touchesEligibility(irrelevante));
+
+    UpdateDescription segmento = new UpdateDescription(List.of(),
+            new BsonDocument("segment", new BsonString("VIP")));
+    assertTrue(CustomerChangeStreamListener.touchesEligibility(segmento));
+
+    UpdateDescription sinTipo = new UpdateDescription(List.of("type"), new BsonDocument());
+    assertTrue(CustomerChangeStreamListener.touchesEligibility(sinTipo));
+  }
+
+  @Test
+  void update_que_cambia_el_numero_de_documento_invalida_toda_la_cache_de_lookup() {
+    UpdateDescription numero = new UpdateDescription(List.of(),
+            new BsonDocument("documentNumber", new BsonString("87654321")));
+    assertTrue(CustomerChangeStreamListener.touchesDocumentNumber(numero));
+
+    UpdateDescription segmento = new UpdateDescription(List.of(),
+            new BsonDocument("segment", new BsonString("VIP")));
+    assertFalse(CustomerChangeStreamListener.touchesDocumentNumber(segmento));
+  }
+}
@@ -26,7 +26,7 @@ public final class Fixtures {
     return new CustomerCreateRequest()
         .type(CustomerType.BUSINESS)
         .documentType(DocumentType.RUC)
-        .documentNumber("20123456789")
+        .documentNumber("20123456786")
         .businessName("  NTT   Data  Peru  S.A.  ");
   }
 
@@ -60,7 +60,7 @@ public final class Fixtures {
         .type("BUSINESS")
         .segment("PYME")
         .documentType("RUC")
-        .documentNumber("20123456789")
+        .documentNumber("20123456786")
         .businessName("NTT Data Peru S.A.")
         .active(true)
         .createdAt(Instant.now())